@@ -0,0 +1,128 @@
+package com.example.benchmark;
+
+import com.example.utils.DurationFormatter;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.*;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import static java.time.temporal.ChronoField.*;
+
+/**
+ * {@link DurationFormatter} against the {@link DateTimeFormatter} over {@link LocalTime} with custom sub-milli
+ * fields that {@code ExecutionTimeLogger} used before. Run with the gc profiler to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DurationFormatterBenchmark {
+
+    private static final DateTimeFormatter TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendValue(HOUR_OF_DAY, 2)
+            .appendLiteral(':')
+            .appendValue(MINUTE_OF_HOUR, 2)
+            .optionalStart()
+            .appendLiteral(':')
+            .appendValue(SECOND_OF_MINUTE, 2)
+            .optionalStart()
+            .appendLiteral('.')
+            .appendFraction(MILLI_OF_SECOND, 3, 3, false)
+            .optionalStart()
+            .appendLiteral("ms ")
+            .optionalStart()
+            .appendFraction(new SubMilliField(ChronoUnit.MICROS, ChronoUnit.MILLIS,
+                    t -> t.getLong(NANO_OF_SECOND) % 1_000_000 / 1000), 0, 3, false)
+            .appendLiteral("us ")
+            .appendFraction(new SubMilliField(ChronoUnit.NANOS, ChronoUnit.MICROS,
+                    t -> t.getLong(NANO_OF_SECOND) % 1000), 0, 3, false)
+            .appendLiteral("ns")
+            .toFormatter(Locale.ROOT);
+
+    private final StringBuilder buffer = new StringBuilder(32);
+
+    @Param({"1234567", "12345678901"})
+    private long nanos;
+
+    @Benchmark
+    public String dateTimeFormatter() {
+        return TIME_FORMATTER.format(LocalTime.ofNanoOfDay(nanos));
+    }
+
+    @Benchmark
+    public String durationFormatter() {
+        return DurationFormatter.format(nanos);
+    }
+
+    @Benchmark
+    public StringBuilder durationFormatterToBuffer() {
+        buffer.setLength(0);
+        return DurationFormatter.formatTo(buffer, nanos);
+    }
+
+    private static final class SubMilliField implements TemporalField {
+        private static final ValueRange RANGE = ValueRange.of(0, 999);
+
+        private final TemporalUnit baseUnit;
+        private final TemporalUnit rangeUnit;
+        private final ToLongFunction<TemporalAccessor> value;
+
+        private SubMilliField(TemporalUnit baseUnit, TemporalUnit rangeUnit, ToLongFunction<TemporalAccessor> value) {
+            this.baseUnit = baseUnit;
+            this.rangeUnit = rangeUnit;
+            this.value = value;
+        }
+
+        @Override
+        public TemporalUnit getBaseUnit() {
+            return baseUnit;
+        }
+
+        @Override
+        public TemporalUnit getRangeUnit() {
+            return rangeUnit;
+        }
+
+        @Override
+        public ValueRange range() {
+            return RANGE;
+        }
+
+        @Override
+        public boolean isDateBased() {
+            return false;
+        }
+
+        @Override
+        public boolean isTimeBased() {
+            return true;
+        }
+
+        @Override
+        public boolean isSupportedBy(TemporalAccessor temporal) {
+            return temporal instanceof LocalTime;
+        }
+
+        @Override
+        public ValueRange rangeRefinedBy(TemporalAccessor temporal) {
+            return RANGE;
+        }
+
+        @Override
+        public long getFrom(TemporalAccessor temporal) {
+            return value.applyAsLong(temporal);
+        }
+
+        @Override
+        public <R extends Temporal> R adjustInto(R temporal, long newValue) {
+            throw new UnsupportedTemporalTypeException("read only");
+        }
+    }
+}
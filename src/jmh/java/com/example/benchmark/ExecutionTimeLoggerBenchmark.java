@@ -0,0 +1,93 @@
+package com.example.benchmark;
+
+import com.example.annotation.TimedMethod;
+import com.example.component.ExecutionTimeLogger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls a {@link TimedMethod} bean through a Spring AOP proxy advised by the current {@link ExecutionTimeLogger}
+ * and by a copy of the former aspect that built and registered the timer on every call. Logging is off (WARN in
+ * the benchmark logback.xml), so the difference is the meter handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionTimeLoggerBenchmark {
+
+    private TimedService cachedMeters;
+    private TimedService registerPerCall;
+
+    @Setup
+    public void setUp() {
+        cachedMeters = proxy(new ExecutionTimeLogger(new SimpleMeterRegistry()));
+        registerPerCall = proxy(new RegisterPerCallExecutionTimeLogger(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String cachedMeters() {
+        return cachedMeters.getMessage("hello.text");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String registerPerCall() {
+        return registerPerCall.getMessage("hello.text");
+    }
+
+    private static TimedService proxy(Object aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TimedService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    @TimedMethod
+    public static class TimedService {
+        public String getMessage(String key) {
+            return key;
+        }
+    }
+
+    @Aspect
+    public static class RegisterPerCallExecutionTimeLogger {
+        private static final double[] PERCENTILES = {0.5, 0.9, 0.95, 0.99, 0.999};
+
+        private final MeterRegistry registry;
+
+        public RegisterPerCallExecutionTimeLogger(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Around("execution(public * *(..)) && within(@com.example.annotation.TimedMethod *)")
+        public Object around(ProceedingJoinPoint point) throws Throwable {
+            Signature signature = point.getSignature();
+            String className = signature.getDeclaringTypeName();
+            String methodName = signature.getName();
+            Timer timer = Timer.builder(className + "." + methodName)
+                    .tags(Tags.of("class", className, "method", methodName))
+                    .publishPercentiles(PERCENTILES)
+                    .register(registry);
+            Timer.Sample sample = Timer.start(registry);
+            try {
+                return point.proceed();
+            } finally {
+                sample.stop(timer);
+            }
+        }
+    }
+}
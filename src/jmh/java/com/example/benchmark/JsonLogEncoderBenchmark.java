@@ -0,0 +1,78 @@
+package com.example.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.component.JsonLogEncoder;
+import com.example.component.RequestContextConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.logging.logback.ColorConverter;
+import org.springframework.boot.logging.logback.ExtendedWhitespaceThrowableProxyConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting one event the way the console appender does: the console pattern of {@code application.yaml} through
+ * {@link PatternLayout} against {@link JsonLogEncoder} writing into a discarding stream. Run with {@code -prof gc} to
+ * compare the allocation per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonLogEncoderBenchmark {
+
+    private static final String CONSOLE_PATTERN = "%clr(%d{yyyy-MM-dd HH:mm:ss.SSS}){faint} %clr(%5p) "
+            + "%clr(${PID:- }){magenta} [rid=%X{rid} sid=%ctx{sid} user=%ctx{user}] %clr(---){faint} "
+            + "%clr([%15.15t]){faint} %clr(%-40.40logger{39}){cyan} %clr(:){faint} %m%n%wEx";
+
+    private final OutputStream discard = OutputStream.nullOutputStream();
+    private PatternLayout patternLayout;
+    private JsonLogEncoder jsonEncoder;
+    private LoggingEvent event;
+
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = new LoggerContext();
+        patternLayout = new PatternLayout();
+        patternLayout.getInstanceConverterMap().put("clr", ColorConverter.class.getName());
+        patternLayout.getInstanceConverterMap().put("wEx", ExtendedWhitespaceThrowableProxyConverter.class.getName());
+        patternLayout.getInstanceConverterMap().put("ctx", RequestContextConverter.class.getName());
+        patternLayout.setContext(loggerContext);
+        patternLayout.setPattern(CONSOLE_PATTERN.replace("${PID:- }", "4242"));
+        patternLayout.start();
+
+        jsonEncoder = new JsonLogEncoder();
+        jsonEncoder.setContext(loggerContext);
+        jsonEncoder.setCustomFields("app=demo-spring-jsf");
+        jsonEncoder.start();
+
+        Logger logger = loggerContext.getLogger("com.example.security.AuthDetailsService");
+        event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "user {} logged in after {} attempts",
+                null, new Object[]{"admin", 2});
+        // the MDC adapter keeps a HashMap
+        Map<String, String> mdc = new HashMap<>();
+        mdc.put("rid", "8f3c2a9d41b7");
+        event.setMDCPropertyMap(mdc);
+    }
+
+    @Benchmark
+    public byte[] patternLayout() {
+        return patternLayout.doLayout(event).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public OutputStream jsonEncoder() throws IOException {
+        jsonEncoder.encodeTo(event, discard);
+        return discard;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.benchmark;
+
+import com.example.component.DbMessageSource;
+import com.example.component.MessageCatalog;
+import com.example.component.MessageTemplateCache;
+import com.example.entity.Message;
+import com.example.repository.MessagesRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the labels of a 30-label page through the {@code @Cacheable} repository proxy, as the message source did
+ * before the catalog, and through the message source reading the preloaded catalog. The repository is called
+ * directly, since the message source now remembers every resolution and would hide the proxy after the first call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSourceBenchmark {
+
+    static final int LABELS = 30;
+
+    private final String[] keys = new String[LABELS];
+    private final MessageTemplateCache templateCache = new MessageTemplateCache();
+    private AnnotationConfigApplicationContext context;
+    private MessagesRepository cachedRepository;
+    private DbMessageSource catalogSource;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < LABELS; i++) {
+            keys[i] = "label." + i;
+        }
+
+        context = new AnnotationConfigApplicationContext(CachedRepositoryConfig.class);
+        cachedRepository = context.getBean(MessagesRepository.class);
+
+        MessagesRepository repository = messagesRepository(messages());
+        MessageCatalog catalog = new MessageCatalog(repository);
+        catalog.refresh();
+        catalogSource = new DbMessageSource(repository, catalog);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void cachedRepository(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(cachedRepository.findByKeyAndLang(key, "eng")
+                    .map(message -> templateCache.get(message.getText()).format(null))
+                    .orElse(key));
+        }
+    }
+
+    @Benchmark
+    public void catalog(Blackhole blackhole) {
+        resolvePage(catalogSource, blackhole);
+    }
+
+    private void resolvePage(DbMessageSource source, Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(source.getMessage(key, null, Locale.ENGLISH));
+        }
+    }
+
+    static List<Message> messages() {
+        List<Message> messages = new ArrayList<>();
+        long id = 1;
+        for (String lang : new String[]{"eng", "pol"}) {
+            for (int i = 0; i < LABELS; i++) {
+                messages.add(new Message(id++, lang, "label." + i, lang + " text of label " + i));
+            }
+        }
+        return messages;
+    }
+
+    static MessagesRepository messagesRepository(List<Message> messages) {
+        return (MessagesRepository) Proxy.newProxyInstance(MessagesRepository.class.getClassLoader(),
+                new Class<?>[]{MessagesRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAll":
+                            return messages;
+                        case "findByKeyAndLang":
+                            return messages.stream()
+                                    .filter(m -> m.getKey().equals(args[0]) && m.getLang().equals(args[1]))
+                                    .findFirst();
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "MessagesRepository(" + messages.size() + " messages)";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachedRepositoryConfig {
+
+        @Bean
+        public CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager("i18n");
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(1000).expireAfterAccess(1, TimeUnit.DAYS));
+            return cacheManager;
+        }
+
+        @Bean
+        public MessagesRepository messagesRepository() {
+            return MessageSourceBenchmark.messagesRepository(messages());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.benchmark;
+
+import com.example.utils.MessageTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link String#format(String, Object...)} on every resolution with precompiled templates; run with the gc
+ * profiler to see the allocation difference of the no-argument path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageTemplateBenchmark {
+
+    private static final String PLAIN_TEXT = "table messages key";
+    private static final String ARGUMENTS_TEXT = "user %s has %s new messages";
+
+    private final MessageTemplate plainTemplate = MessageTemplate.compile(PLAIN_TEXT);
+    private final MessageTemplate argumentsTemplate = MessageTemplate.compile(ARGUMENTS_TEXT);
+    private final Object[] args = {"kamkie", 12};
+
+    @Benchmark
+    public String stringFormatPlain() {
+        return String.format(PLAIN_TEXT, (Object[]) null);
+    }
+
+    @Benchmark
+    public String templatePlain() {
+        return plainTemplate.format(null);
+    }
+
+    @Benchmark
+    public String stringFormatArguments() {
+        return String.format(ARGUMENTS_TEXT, args);
+    }
+
+    @Benchmark
+    public String templateArguments() {
+        return argumentsTemplate.format(args);
+    }
+}
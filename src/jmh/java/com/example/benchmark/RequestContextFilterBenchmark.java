@@ -0,0 +1,138 @@
+package com.example.benchmark;
+
+import com.example.component.LoggingContextFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.MDC;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An anonymous request for a static resource behind the JDBC session repository filter, through the four former
+ * logging filters and through {@link LoggingContextFilter}. The former session id filter created a session, which
+ * the repository inserts when the request commits; every statement waits {@code roundTripMicros} as a stand-in for
+ * the database. INFO is disabled, so neither side pays for its log lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestContextFilterBenchmark {
+
+    @Param({"0", "300"})
+    long roundTripMicros;
+
+    private SessionRepositoryFilter<?> sessionRepositoryFilter;
+    private Filter[] formerFilters;
+    private LoggingContextFilter loggingContextFilter;
+
+    @Setup
+    public void setUp() {
+        long roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        JdbcOperations jdbcOperations = (JdbcOperations) Proxy.newProxyInstance(JdbcOperations.class.getClassLoader(),
+                new Class<?>[]{JdbcOperations.class}, (proxy, method, args) -> {
+                    long deadline = System.nanoTime() + roundTripNanos;
+                    while (System.nanoTime() < deadline) {
+                        Thread.onSpinWait();
+                    }
+                    return "batchUpdate".equals(method.getName()) ? new int[0] : 1;
+                });
+        sessionRepositoryFilter = new SessionRepositoryFilter<>(
+                new JdbcIndexedSessionRepository(jdbcOperations, TransactionOperations.withoutTransaction()));
+        formerFilters = new Filter[]{sessionRepositoryFilter, new FormerRequestIdFilter(), new FormerTimeLoggingFilter(),
+                new FormerSessionIdFilter(), new FormerUserNameFilter()};
+        loggingContextFilter = new LoggingContextFilter(true);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse formerFilters() throws Exception {
+        return request(formerFilters);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse loggingContextFilter() throws Exception {
+        return request(sessionRepositoryFilter, loggingContextFilter);
+    }
+
+    private static MockHttpServletResponse request(Filter... filters) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resources/style.css");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(new HttpServlet() {
+        }, filters).doFilter(request, response);
+        return response;
+    }
+
+    @Slf4j
+    static class FormerRequestIdFilter extends OncePerRequestFilter {
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            try {
+                String id = Long.toString(UUID.randomUUID().getMostSignificantBits()).substring(1, 7);
+                MDC.put("rid", id);
+                log.info("add request id to logging context {}", id);
+                filterChain.doFilter(request, response);
+            } finally {
+                MDC.remove("rid");
+                MDC.remove("sid");
+                MDC.remove("userName");
+            }
+        }
+    }
+
+    @Slf4j
+    static class FormerSessionIdFilter extends OncePerRequestFilter {
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String sessionId = request.getSession().getId();
+            MDC.put("sid", sessionId);
+            log.info("add sessionId: {}, to logging context", sessionId);
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    @Slf4j
+    static class FormerUserNameFilter extends OncePerRequestFilter {
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String userName = Optional.ofNullable(request.getUserPrincipal()).map(Principal::getName).orElse("{no user}");
+            MDC.put("userName", userName);
+            log.info("add userName: {} to logging context", userName);
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    @Slf4j
+    static class FormerTimeLoggingFilter extends OncePerRequestFilter {
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            long start = System.nanoTime();
+            filterChain.doFilter(request, response);
+            log.info("request: url: {}, time: {}", request.getRequestURL(), System.nanoTime() - start);
+        }
+    }
+}
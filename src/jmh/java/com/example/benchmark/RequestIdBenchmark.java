@@ -0,0 +1,31 @@
+package com.example.benchmark;
+
+import com.example.utils.RequestIds;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request id generation under contention: the former {@link UUID#randomUUID()} based id, which goes through the
+ * shared {@code SecureRandom}, against {@link RequestIds#next()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RequestIdBenchmark {
+
+    @Benchmark
+    public String uuid() {
+        return Long.toString(UUID.randomUUID().getMostSignificantBits()).substring(1, 7);
+    }
+
+    @Benchmark
+    public String requestIds() {
+        return RequestIds.next();
+    }
+}
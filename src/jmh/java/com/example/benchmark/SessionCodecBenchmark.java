@@ -0,0 +1,112 @@
+package com.example.benchmark;
+
+import com.example.component.SessionCodec;
+import com.example.entity.Role;
+import com.example.entity.User;
+import com.example.view.TableView;
+import org.nustaq.serialization.FSTConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading one session attribute with JDK serialization, the default FST configuration and
+ * {@link SessionCodec}, for the attributes a logged-in user of the table view has: the security context, the CSRF
+ * token, the session-scoped {@link TableView} and the locale. The serialized size of each is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.lang=ALL-UNNAMED",
+        "--add-opens=java.base/java.math=ALL-UNNAMED", "--add-opens=java.base/java.util=ALL-UNNAMED",
+        "--add-opens=java.base/java.util.concurrent=ALL-UNNAMED", "--add-opens=java.base/java.net=ALL-UNNAMED",
+        "--add-opens=java.base/java.text=ALL-UNNAMED", "--add-opens=java.sql/java.sql=ALL-UNNAMED"})
+public class SessionCodecBenchmark {
+
+    @Param({"securityContext", "csrfToken", "tableView", "locale"})
+    private String attributeName;
+
+    private final FSTConfiguration fstDefault = FSTConfiguration.createDefaultConfiguration();
+    private final SessionCodec codec = new SessionCodec();
+    private Object attribute;
+    private byte[] jdkBytes;
+    private byte[] fstBytes;
+    private byte[] codecBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        attribute = createAttribute(attributeName);
+        jdkBytes = jdkWrite();
+        fstBytes = fstDefaultWrite();
+        codecBytes = codecWrite();
+        System.out.printf("%n%s bytes: jdk %d, fst default %d, session codec %d%n", attributeName, jdkBytes.length,
+                fstBytes.length, codecBytes.length);
+    }
+
+    private static Object createAttribute(String name) {
+        switch (name) {
+            case "securityContext":
+                User user = new User("admin", "{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6kYtTZqJ2C5Z9rQn8mV3pQe",
+                        List.of(new Role(1L, "ROLE_ADMIN"), new Role(2L, "ROLE_USER")));
+                return new SecurityContextImpl(
+                        new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+            case "csrfToken":
+                return new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", UUID.randomUUID().toString());
+            case "tableView":
+                TableView tableView = new TableView();
+                tableView.getMessages();
+                return tableView;
+            default:
+                return Locale.forLanguageTag("pl-PL");
+        }
+    }
+
+    @Benchmark
+    public byte[] jdkWrite() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(attribute);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object jdkRead() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(jdkBytes))) {
+            return in.readObject();
+        }
+    }
+
+    @Benchmark
+    public byte[] fstDefaultWrite() {
+        return fstDefault.asByteArray(attribute);
+    }
+
+    @Benchmark
+    public Object fstDefaultRead() {
+        return fstDefault.asObject(fstBytes);
+    }
+
+    @Benchmark
+    public byte[] codecWrite() {
+        return codec.encode(attribute);
+    }
+
+    @Benchmark
+    public Object codecRead() {
+        return codec.decode(codecBytes);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.benchmark;
+
+import com.example.component.SessionCodec;
+import com.example.component.SessionCompression;
+import com.example.entity.Message;
+import com.example.view.TableView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU spent to compress and decompress the session attribute of {@link TableView} holding a page of messages, per
+ * deflate level. The raw and stored size printed at setup give the bytes each write saves on the way to and from
+ * {@code spring_session_attributes}: the CPU time per saved byte is to be weighed against the time the database needs
+ * to transfer and write that byte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.lang=ALL-UNNAMED",
+        "--add-opens=java.base/java.math=ALL-UNNAMED", "--add-opens=java.base/java.util=ALL-UNNAMED",
+        "--add-opens=java.base/java.util.concurrent=ALL-UNNAMED", "--add-opens=java.base/java.net=ALL-UNNAMED",
+        "--add-opens=java.base/java.text=ALL-UNNAMED", "--add-opens=java.sql/java.sql=ALL-UNNAMED"})
+public class SessionCompressionBenchmark {
+
+    @Param({"10", "50", "200"})
+    private int pageSize;
+
+    @Param({"1", "6"})
+    private int level;
+
+    private SessionCompression compression;
+    private byte[] raw;
+    private byte[] stored;
+
+    @Setup
+    public void setUp() {
+        List<Message> page = new ArrayList<>();
+        for (long i = 0; i < pageSize; i++) {
+            page.add(new Message(i, i % 2 == 0 ? "eng" : "pol", "table.column.header." + i,
+                    "Text of the message number " + i + " shown in the table view"));
+        }
+        TableView tableView = new TableView();
+        tableView.getMessages().setWrappedData(page);
+        raw = new SessionCodec().encode(tableView);
+        compression = new SessionCompression(0, level);
+        stored = compression.compress(raw);
+        System.out.printf("%npage %d, level %d: raw %d bytes, stored %d bytes%n", pageSize, level, raw.length,
+                stored.length);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return compression.compress(raw);
+    }
+
+    @Benchmark
+    public byte[] decompress() {
+        return compression.decompress(stored);
+    }
+}
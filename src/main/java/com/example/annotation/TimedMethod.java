@@ -9,4 +9,24 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 @Timed
 public @interface TimedMethod {
+
+    /**
+     * Calls taking at least this long are always logged, -1 disables the threshold.
+     */
+    long logAboveMillis() default -1;
+
+    /**
+     * Fraction of the calls under {@link #logAboveMillis()} that are logged, 1 logs every call.
+     */
+    double logSampleRate() default 1.0;
+
+    /**
+     * Percentiles computed in the JVM, empty for none.
+     */
+    double[] percentiles() default {0.5, 0.9, 0.95, 0.99, 0.999};
+
+    /**
+     * Publish histogram buckets that can be aggregated server-side.
+     */
+    boolean histogram() default false;
 }
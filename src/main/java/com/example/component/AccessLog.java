@@ -0,0 +1,172 @@
+package com.example.component;
+
+import com.example.utils.AccessLogFiles;
+import com.example.utils.AccessLogRing;
+import com.example.utils.BoundedKeys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Binary access log: request threads put fixed-layout records into an {@link AccessLogRing}, a background thread
+ * drains it to rotating memory-mapped {@link AccessLogFiles}. Request threads only pass {@link System#nanoTime()},
+ * the writer converts it to wall-clock time against an anchor it refreshes every second. URI templates are interned to ids, unknown ones
+ * beyond {@link #MAX_TEMPLATES} share the id of {@value BoundedKeys#OTHER}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "logging.custom.access-log.enable")
+public class AccessLog implements MeterBinder {
+
+    static final int MAX_TEMPLATES = 1024;
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AccessLogRing ring;
+    private final AccessLogFiles files;
+    private final AtomicReferenceArray<String> templates = new AtomicReferenceArray<>(MAX_TEMPLATES);
+    private final BoundedKeys<String, Integer> templateIds = new BoundedKeys<>(MAX_TEMPLATES,
+            template -> BoundedKeys.OTHER, this::internTemplate);
+    private int templateCount;
+    private volatile boolean running;
+    private volatile Thread writer;
+    private long written;
+    private long failed;
+    private long anchorMillis;
+    private long anchorNanos;
+
+    @Autowired
+    public AccessLog(@Value("${logging.custom.access-log.directory:logs/access}") String directory,
+                     @Value("${logging.custom.access-log.capacity:65536}") int capacity,
+                     @Value("${logging.custom.access-log.file-size:67108864}") int fileSize,
+                     @Value("${logging.custom.access-log.max-files:10}") int maxFiles) {
+        this(Paths.get(directory), capacity, fileSize, maxFiles);
+    }
+
+    public AccessLog(Path directory, int capacity, int fileSize, int maxFiles) {
+        this.ring = new AccessLogRing(capacity);
+        this.files = new AccessLogFiles(directory, fileSize, maxFiles, templates::get);
+        templateIds.get(BoundedKeys.OTHER);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (writer == null) {
+            running = true;
+            writer = new Thread(this::drainLoop, "access-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Drains every record offered so far and closes the current file.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        Thread current = writer;
+        if (current != null) {
+            running = false;
+            LockSupport.unpark(current);
+            current.join();
+            writer = null;
+        }
+    }
+
+    /**
+     * Called on the request thread, never blocks; false when the ring is full and the record was dropped.
+     */
+    public boolean record(long startNanos, long durationNanos, String method, int status, String uriTemplate,
+                          long requestBytes, long responseBytes) {
+        long attributes = AccessLogRing.pack(status, AccessLogFiles.methodId(method), templateId(uriTemplate));
+        return ring.offer(startNanos, durationNanos, requestBytes, responseBytes, attributes);
+    }
+
+    int templateId(String uriTemplate) {
+        return templateIds.get(uriTemplate);
+    }
+
+    /**
+     * Called by {@link BoundedKeys} under its lock, first for {@value BoundedKeys#OTHER}, which gets id 0.
+     */
+    private Integer internTemplate(String uriTemplate) {
+        int id = templateCount++;
+        templates.set(id, uriTemplate);
+        return id;
+    }
+
+    private void drainLoop() {
+        AccessLogRing.Sink sink = this::write;
+        anchor();
+        boolean drained = false;
+        while (running || ring.size() > 0) {
+            int count = ring.drain(sink, DRAIN_BATCH);
+            drained |= count > 0;
+            if (System.nanoTime() - anchorNanos > FLUSH_INTERVAL_NANOS) {
+                if (drained) {
+                    files.flush();
+                    drained = false;
+                }
+                anchor();
+            }
+            if (count == 0 && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        try {
+            files.close();
+        } catch (IOException e) {
+            log.warn("cannot close access log", e);
+        }
+    }
+
+    private void anchor() {
+        anchorMillis = System.currentTimeMillis();
+        anchorNanos = System.nanoTime();
+    }
+
+    private void write(long startNanos, long durationNanos, long requestBytes, long responseBytes, long attributes) {
+        long startMillis = anchorMillis + Math.floorDiv(startNanos - anchorNanos, 1_000_000L);
+        try {
+            files.write(startMillis, durationNanos, requestBytes, responseBytes, attributes);
+            written++;
+        } catch (IOException e) {
+            if (failed++ == 0) {
+                log.warn("cannot write access log, records are discarded", e);
+            }
+        }
+    }
+
+    public long getDropped() {
+        return ring.dropped();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("access.log.pending", ring, AccessLogRing::size)
+                .description("Records waiting for the access log writer")
+                .register(registry);
+        FunctionCounter.builder("access.log.dropped", ring, AccessLogRing::dropped)
+                .description("Records dropped because the access log ring was full")
+                .register(registry);
+        FunctionCounter.builder("access.log.written", this, accessLog -> accessLog.written)
+                .description("Records written to access log files")
+                .register(registry);
+    }
+}
@@ -1,45 +1,80 @@
 package com.example.component;
 
-import com.example.annotation.TimedMethod;
 import com.example.entity.Message;
+import com.example.jfr.MessageLookupEvent;
 import com.example.repository.MessagesRepository;
+import com.example.utils.MessageTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.MessageSource;
 import org.springframework.context.MessageSourceResolvable;
 import org.springframework.context.annotation.Primary;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+@Slf4j
 @Primary
-@TimedMethod
 @Component("messageSource")
-public class DbMessageSource implements MessageSource {
+public class DbMessageSource implements MessageBundleSource {
+
+    private static final Object MISSING = new Object();
+    private static final int MAX_LOCALES = 64;
+    private static final int MAX_CODES_PER_LOCALE = 10_000;
 
     private final MessagesRepository messagesRepository;
+    private final MessageTemplateCache templateCache;
+    @Nullable
+    private final MessageCatalog messageCatalog;
+    private final LocaleFallbacks localeFallbacks;
+    private final MeterRegistry registry;
+    private volatile Resolutions resolutions = new Resolutions(0);
 
-    @Autowired
     public DbMessageSource(MessagesRepository messagesRepository) {
+        this(messagesRepository, null);
+    }
+
+    public DbMessageSource(MessagesRepository messagesRepository, @Nullable MessageCatalog messageCatalog) {
+        this(messagesRepository, new MessageTemplateCache(), messageCatalog, new LocaleFallbacks(), Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public DbMessageSource(MessagesRepository messagesRepository, MessageTemplateCache templateCache,
+                           @Nullable MessageCatalog messageCatalog, LocaleFallbacks localeFallbacks,
+                           MeterRegistry registry) {
         this.messagesRepository = messagesRepository;
+        this.templateCache = templateCache;
+        this.messageCatalog = messageCatalog;
+        this.localeFallbacks = localeFallbacks;
+        this.registry = registry;
     }
 
     @Override
     public String getMessage(String code, @Nullable Object[] args, @Nullable String defaultMessage, Locale locale) {
-        return messagesRepository.findByKeyAndLang(code, locale.getISO3Language())
-                .map(Message::getText)
-                .or(() -> Optional.ofNullable(defaultMessage))
-                .map(msg -> String.format(msg, args))
-                .orElse(null);
+        MessageTemplate template = resolve(code, locale);
+        if (template != null) {
+            return template.format(args);
+        }
+        return defaultMessage == null ? null : templateCache.get(defaultMessage).format(args);
     }
 
     @Override
     public String getMessage(String code, @Nullable Object[] args, Locale locale) {
-        return Optional.ofNullable(getMessage(code, args, null, locale))
-                .orElse(code);
+        String message = getMessage(code, args, null, locale);
+        return message == null ? code : message;
     }
 
     @Override
@@ -53,9 +88,155 @@ public class DbMessageSource implements MessageSource {
                 .orElseGet(() -> formatDefaultMessage(codes, arguments, defaultMessage));
     }
 
+    @Override
+    public Map<String, String> getMessages(Collection<String> codes, Locale locale) {
+        LocaleMessages messages = localeMessages(locale);
+        Map<String, String> result = new HashMap<>();
+        List<String> unresolved = new ArrayList<>();
+        for (String code : codes) {
+            Object resolved = messages.resolved.get(code);
+            if (resolved == null) {
+                unresolved.add(code);
+            } else if (resolved != MISSING) {
+                result.put(code, ((MessageTemplate) resolved).format(null));
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return result;
+        }
+
+        Map<String, MessageTemplate> found = findTemplates(unresolved, messages.chain);
+        for (String code : unresolved) {
+            MessageTemplate template = found.get(code);
+            messages.remember(code, template == null ? MISSING : template);
+            if (template != null) {
+                result.put(code, template.format(null));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, String> getAllMessages(Locale locale) {
+        LocaleMessages messages = localeMessages(locale);
+        Map<String, String> all = messages.all;
+        if (all == null) {
+            all = loadAllMessages(messages.chain);
+            messages.all = all;
+        }
+        return all;
+    }
+
+    /**
+     * Resolves a code through the fallback chain of the locale once and remembers the outcome, including a miss,
+     * until the catalog version changes.
+     */
+    @Nullable
+    private MessageTemplate resolve(String code, Locale locale) {
+        MessageLookupEvent event = new MessageLookupEvent();
+        event.begin();
+        LocaleMessages messages = localeMessages(locale);
+        Object resolved = messages.resolved.get(code);
+        boolean cached = resolved != null;
+        if (resolved == null) {
+            resolved = findTemplate(code, messages.chain);
+            messages.remember(code, resolved);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.code = code;
+            event.locale = locale.toLanguageTag();
+            event.cached = cached;
+            event.found = resolved != MISSING;
+            event.commit();
+        }
+        return resolved == MISSING ? null : (MessageTemplate) resolved;
+    }
+
+    private LocaleMessages localeMessages(Locale locale) {
+        Resolutions current = resolutions;
+        if (messageCatalog != null && current.version != messageCatalog.getVersion()) {
+            current = new Resolutions(messageCatalog.getVersion());
+            resolutions = current;
+        }
+
+        LocaleMessages messages = current.byLocale.get(locale);
+        if (messages != null) {
+            return messages;
+        }
+        if (current.byLocale.size() >= MAX_LOCALES) {
+            // too many distinct locales, resolve without remembering or tagging metrics with them
+            return new LocaleMessages(locale, localeFallbacks.chainFor(locale), null);
+        }
+
+        messages = new LocaleMessages(locale, localeFallbacks.chainFor(locale), registry);
+        LocaleMessages existing = current.byLocale.putIfAbsent(locale, messages);
+        return existing == null ? messages : existing;
+    }
+
+    private Object findTemplate(String code, List<String> chain) {
+        for (String lang : chain) {
+            MessageTemplate template = findTemplate(code, lang);
+            if (template != null) {
+                return template;
+            }
+        }
+        return MISSING;
+    }
+
+    private Map<String, MessageTemplate> findTemplates(List<String> codes, List<String> chain) {
+        Map<String, MessageTemplate> found = new HashMap<>();
+        List<String> remaining = new ArrayList<>(codes);
+        for (String lang : chain) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            if (messageCatalog != null) {
+                for (String code : remaining) {
+                    MessageTemplate template = messageCatalog.getTemplate(code, lang);
+                    if (template != null) {
+                        found.put(code, template);
+                    }
+                }
+            } else {
+                for (Message message : messagesRepository.findByKeyInAndLang(remaining, lang)) {
+                    found.put(message.getKey(), templateCache.get(message.getText()));
+                }
+            }
+            remaining.removeIf(found::containsKey);
+        }
+        return found;
+    }
+
+    private Map<String, String> loadAllMessages(List<String> chain) {
+        Map<String, String> all = new HashMap<>();
+        // the first language of the chain wins, so it is applied last
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            String lang = chain.get(i);
+            if (messageCatalog != null) {
+                messageCatalog.getTemplates(lang).forEach((code, template) -> all.put(code, template.format(null)));
+            } else {
+                for (Message message : messagesRepository.findByLang(lang)) {
+                    all.put(message.getKey(), templateCache.get(message.getText()).format(null));
+                }
+            }
+        }
+        return Map.copyOf(all);
+    }
+
+    @Nullable
+    private MessageTemplate findTemplate(String code, String lang) {
+        if (messageCatalog != null) {
+            return messageCatalog.getTemplate(code, lang);
+        }
+        return messagesRepository.findByKeyAndLang(code, lang)
+                .map(message -> templateCache.get(message.getText()))
+                .orElse(null);
+    }
+
     private String formatDefaultMessage(@Nullable String[] codes, @Nullable Object[] args, @Nullable String defaultMessage) {
         return Optional.ofNullable(defaultMessage)
-                .map(message -> String.format(message, args))
+                .map(message -> templateCache.get(message).format(args))
                 .orElseGet(() -> Arrays.toString(codes));
     }
 
@@ -66,4 +247,43 @@ public class DbMessageSource implements MessageSource {
                 .findFirst();
     }
 
+    private static final class Resolutions {
+        private final long version;
+        private final ConcurrentMap<Locale, LocaleMessages> byLocale = new ConcurrentHashMap<>();
+
+        private Resolutions(long version) {
+            this.version = version;
+        }
+    }
+
+    private static final class LocaleMessages {
+        private final Locale locale;
+        private final List<String> chain;
+        @Nullable
+        private final Counter missingKeys;
+        private final ConcurrentMap<String, Object> resolved = new ConcurrentHashMap<>();
+        @Nullable
+        private volatile Map<String, String> all;
+
+        private LocaleMessages(Locale locale, List<String> chain, @Nullable MeterRegistry registry) {
+            this.locale = locale;
+            this.chain = List.copyOf(chain);
+            this.missingKeys = registry == null ? null : Counter.builder("i18n.messages.missing")
+                    .description("message keys not found in any language of the locale fallback chain")
+                    .tag("locale", locale.toLanguageTag())
+                    .register(registry);
+        }
+
+        private void remember(String code, Object template) {
+            if (missingKeys == null || resolved.size() >= MAX_CODES_PER_LOCALE
+                    || resolved.putIfAbsent(code, template) != null) {
+                return;
+            }
+            if (template == MISSING) {
+                missingKeys.increment();
+                log.info("missing message key: {}, locale: {}, tried: {}", code, locale.toLanguageTag(), chain);
+            }
+        }
+    }
+
 }
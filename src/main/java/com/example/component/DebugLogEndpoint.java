@@ -0,0 +1,78 @@
+package com.example.component;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@code /actuator/debuglog} lists the active per-request DEBUG rules, {@code POST /actuator/debuglog} with
+ * {@code type} header, user ({@code value}) or sample ({@code rate}), optional comma-separated {@code loggers}
+ * (default {@value #DEFAULT_LOGGERS}) and {@code minutes} (default {@value #DEFAULT_MINUTES}) adds one,
+ * {@code DELETE /actuator/debuglog/{id}} removes one and {@code DELETE /actuator/debuglog} all of them.
+ */
+@Component
+@Endpoint(id = "debuglog")
+@ConditionalOnProperty(name = "logging.custom.debug-log.enable")
+public class DebugLogEndpoint {
+
+    static final String DEFAULT_LOGGERS = "com.example";
+    static final long DEFAULT_MINUTES = 15;
+
+    private final DebugLogRules rules;
+
+    public DebugLogEndpoint(DebugLogRules rules) {
+        this.rules = rules;
+    }
+
+    @ReadOperation
+    public List<DebugLogRules.Rule> rules() {
+        return rules.getRules();
+    }
+
+    @WriteOperation
+    public DebugLogRules.Rule add(String type, @Nullable String value, @Nullable Double rate,
+                                  @Nullable String loggers, @Nullable Long minutes) {
+        DebugLogRules.Type ruleType;
+        try {
+            ruleType = DebugLogRules.Type.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("unknown type " + type, "expected header, user or sample");
+        }
+        try {
+            return rules.add(ruleType, value, rate == null ? 0.0 : rate,
+                    splitLoggers(loggers == null ? DEFAULT_LOGGERS : loggers),
+                    Duration.ofMinutes(minutes == null ? DEFAULT_MINUTES : minutes));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public boolean remove(@Selector String id) {
+        return rules.remove(id);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        rules.clear();
+    }
+
+    private static List<String> splitLoggers(String loggers) {
+        List<String> prefixes = new ArrayList<>();
+        for (String logger : loggers.split(",")) {
+            prefixes.add(logger.trim());
+        }
+        return prefixes;
+    }
+}
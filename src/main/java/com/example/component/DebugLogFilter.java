@@ -0,0 +1,48 @@
+package com.example.component;
+
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Enables DEBUG for a request selected by one of the {@link DebugLogRules}, with the rule id in the {@code debug}
+ * MDC entry. Runs before {@link LoggingContextFilter} so that its request line is written at DEBUG, with headers.
+ */
+@ConditionalOnProperty(name = "logging.custom.debug-log.enable")
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@Component
+public class DebugLogFilter extends OncePerRequestFilter {
+
+    private final DebugLogRules rules;
+
+    public DebugLogFilter(DebugLogRules rules) {
+        this.rules = rules;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        DebugLogRules.Rule rule = rules.match(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestDebugTurboFilter.begin(rule.loggerPrefixes());
+        MDC.put("debug", rule.getId());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove("debug");
+            RequestDebugTurboFilter.end();
+        }
+    }
+}
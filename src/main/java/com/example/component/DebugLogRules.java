@@ -0,0 +1,266 @@
+package com.example.component;
+
+import ch.qos.logback.classic.LoggerContext;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Expiring rules that select requests whose DEBUG output is enabled by the {@link RequestDebugTurboFilter}: requests
+ * carrying the id of a {@link Type#HEADER} rule in the {@code header}, requests of the user of a {@link Type#USER}
+ * rule and a {@link Type#SAMPLE} of all requests. A rule lasts at most {@code max-duration}. Without rules matching a
+ * request costs one volatile read.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "logging.custom.debug-log.enable")
+public class DebugLogRules {
+
+    static final int MAX_RULES = 32;
+
+    private final String header;
+    private final Duration maxDuration;
+    private final Clock clock;
+    private final RequestDebugTurboFilter turboFilter = new RequestDebugTurboFilter();
+    /**
+     * Copy-on-write, replaced under the lock of this object.
+     */
+    private volatile Rule[] rules = new Rule[0];
+
+    @Autowired
+    public DebugLogRules(@Value("${logging.custom.debug-log.header:X-Debug-Log}") String header,
+                         @Value("${logging.custom.debug-log.max-duration:1h}") Duration maxDuration) {
+        this(header, maxDuration, Clock.systemUTC());
+    }
+
+    public DebugLogRules(String header, Duration maxDuration, Clock clock) {
+        this.header = header;
+        this.maxDuration = maxDuration;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void install() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext)) {
+            log.warn("per-request DEBUG needs logback, logger factory is {}", loggerFactory.getClass().getName());
+            return;
+        }
+        LoggerContext context = (LoggerContext) loggerFactory;
+        turboFilter.setContext(context);
+        turboFilter.setName("request-debug");
+        turboFilter.start();
+        context.addTurboFilter(turboFilter);
+    }
+
+    @PreDestroy
+    public void uninstall() {
+        turboFilter.stop();
+        if (turboFilter.getContext() instanceof LoggerContext) {
+            ((LoggerContext) turboFilter.getContext()).getTurboFilterList().remove(turboFilter);
+        }
+    }
+
+    /**
+     * @param value    user name of a {@link Type#USER} rule
+     * @param rate     fraction of requests selected by a {@link Type#SAMPLE} rule
+     * @param loggers  logger name prefixes whose DEBUG output is enabled
+     * @param duration shortened to {@code max-duration}
+     */
+    public synchronized Rule add(Type type, @Nullable String value, double rate, List<String> loggers,
+                                 Duration duration) {
+        if (type == Type.USER && (value == null || value.isBlank())) {
+            throw new IllegalArgumentException("a user rule needs a user name");
+        }
+        if (type == Type.SAMPLE && !(rate > 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException("a sample rule needs a rate in (0, 1], got " + rate);
+        }
+        if (loggers.isEmpty() || loggers.stream().anyMatch(String::isBlank)) {
+            throw new IllegalArgumentException("expected logger name prefixes, got " + loggers);
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("expected a positive duration, got " + duration);
+        }
+        Rule[] current = activeRules(clock.millis());
+        if (current.length >= MAX_RULES) {
+            throw new IllegalArgumentException("at most " + MAX_RULES + " rules");
+        }
+        Duration effective = duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        Rule rule = new Rule(UUID.randomUUID().toString(), type, type == Type.USER ? value : null,
+                type == Type.SAMPLE ? rate : 0.0, loggers, clock.instant().plus(effective));
+        Rule[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = rule;
+        rules = updated;
+        log.info("DEBUG enabled for {} until {}", rule, rule.expires);
+        return rule;
+    }
+
+    public synchronized boolean remove(String id) {
+        Rule[] current = rules;
+        List<Rule> kept = new ArrayList<>(current.length);
+        for (Rule rule : current) {
+            if (!rule.id.equals(id)) {
+                kept.add(rule);
+            }
+        }
+        rules = kept.toArray(new Rule[0]);
+        return kept.size() < current.length;
+    }
+
+    public synchronized void clear() {
+        rules = new Rule[0];
+    }
+
+    public List<Rule> getRules() {
+        long now = clock.millis();
+        List<Rule> active = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (now < rule.expiresMillis) {
+                active.add(rule);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * The first rule selecting the request, counted as matched.
+     */
+    @Nullable
+    public Rule match(HttpServletRequest request) {
+        Rule[] current = rules;
+        if (current.length == 0) {
+            return null;
+        }
+        long now = clock.millis();
+        String userName = null;
+        boolean userResolved = false;
+        for (Rule rule : current) {
+            if (now >= rule.expiresMillis) {
+                expire(now);
+                continue;
+            }
+            boolean matches;
+            switch (rule.type) {
+                case HEADER:
+                    matches = rule.id.equals(request.getHeader(header));
+                    break;
+                case USER:
+                    if (!userResolved) {
+                        userName = RequestLoggingContext.getUserName(request);
+                        userResolved = true;
+                    }
+                    matches = userName != null && userName.equals(rule.value);
+                    break;
+                default:
+                    matches = ThreadLocalRandom.current().nextDouble() < rule.rate;
+            }
+            if (matches) {
+                rule.matched.increment();
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void expire(long now) {
+        rules = activeRules(now);
+    }
+
+    private Rule[] activeRules(long now) {
+        Rule[] current = rules;
+        int active = 0;
+        for (Rule rule : current) {
+            if (now < rule.expiresMillis) {
+                active++;
+            }
+        }
+        if (active == current.length) {
+            return current;
+        }
+        Rule[] kept = new Rule[active];
+        int i = 0;
+        for (Rule rule : current) {
+            if (now < rule.expiresMillis) {
+                kept[i++] = rule;
+            }
+        }
+        return kept;
+    }
+
+    public enum Type {
+        HEADER, USER, SAMPLE
+    }
+
+    @Getter
+    public static final class Rule {
+        private final String id;
+        private final Type type;
+        @Nullable
+        private final String value;
+        private final double rate;
+        private final List<String> loggers;
+        private final Instant expires;
+        @Getter(AccessLevel.NONE)
+        private final String[] loggerPrefixes;
+        @Getter(AccessLevel.NONE)
+        private final long expiresMillis;
+        @Getter(AccessLevel.NONE)
+        private final LongAdder matched = new LongAdder();
+
+        private Rule(String id, Type type, @Nullable String value, double rate, List<String> loggers,
+                     Instant expires) {
+            this.id = id;
+            this.type = type;
+            this.value = value;
+            this.rate = rate;
+            this.loggers = Collections.unmodifiableList(new ArrayList<>(loggers));
+            this.expires = expires;
+            this.loggerPrefixes = loggers.toArray(new String[0]);
+            this.expiresMillis = expires.toEpochMilli();
+        }
+
+        /**
+         * Requests selected so far.
+         */
+        public long getMatched() {
+            return matched.sum();
+        }
+
+        String[] loggerPrefixes() {
+            return loggerPrefixes;
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case HEADER:
+                    return "requests with header value " + id + " in " + loggers;
+                case USER:
+                    return "requests of user " + value + " in " + loggers;
+                default:
+                    return rate + " of requests in " + loggers;
+            }
+        }
+    }
+}
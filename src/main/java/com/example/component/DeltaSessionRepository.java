@@ -0,0 +1,444 @@
+package com.example.component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.lang.Nullable;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps attributes set during a request out of the underlying session until it is saved, and then passes on only
+ * those whose serialized bytes differ from the bytes stored for them, so setting an attribute to an equal value, as
+ * session-scoped beans and {@code HomeController} do on every request, no longer writes its row. The stored bytes of
+ * an attribute are the bytes the session conversion service deserialized it from, reported through
+ * {@link #attributeRead(byte[])}, or the bytes last passed on; an attribute whose stored bytes are unknown is written.
+ * Bytes are compared exactly, so a changed attribute is never skipped. As with the underlying repository, an
+ * attribute changed after a save is only written by the next save when it is set again.
+ * <p>
+ * With a {@link SessionNearCache} a session found in it is read from the stored bytes of its entry and the underlying
+ * session is only loaded when the save has something to write besides the last access, which is stored without
+ * loading it. Each request deserializes the attributes it reads from those bytes into its own copies, so concurrent
+ * requests of a session never share mutable values; the near cache only saves the select. With a
+ * {@link SessionAccessWriter} the last access of existing sessions is left to it rather than the underlying session.
+ */
+public class DeltaSessionRepository<S extends Session>
+        implements FindByIndexNameSessionRepository<DeltaSessionRepository<S>.DeltaSession>, MeterBinder {
+
+    /**
+     * Set while a session reads an attribute of the underlying session.
+     */
+    private static final ThreadLocal<AttributeRead> READS = new ThreadLocal<>();
+    private static final TypeDescriptor OBJECT = TypeDescriptor.valueOf(Object.class);
+    private static final TypeDescriptor BYTES = TypeDescriptor.valueOf(byte[].class);
+
+    private final FindByIndexNameSessionRepository<S> delegate;
+    private final ConversionService conversionService;
+    @Nullable
+    private final SessionNearCache nearCache;
+    @Nullable
+    private final SessionAccessWriter accessWriter;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public DeltaSessionRepository(FindByIndexNameSessionRepository<S> delegate, ConversionService conversionService) {
+        this(delegate, conversionService, null);
+    }
+
+    public DeltaSessionRepository(FindByIndexNameSessionRepository<S> delegate, ConversionService conversionService,
+                                  @Nullable SessionNearCache nearCache) {
+        this(delegate, conversionService, nearCache, null);
+    }
+
+    public DeltaSessionRepository(FindByIndexNameSessionRepository<S> delegate, ConversionService conversionService,
+                                  @Nullable SessionNearCache nearCache, @Nullable SessionAccessWriter accessWriter) {
+        this.delegate = delegate;
+        this.conversionService = conversionService;
+        this.nearCache = nearCache;
+        this.accessWriter = accessWriter;
+    }
+
+    /**
+     * Called by the session conversion service with the stored bytes of each attribute before it deserializes them.
+     */
+    public static void attributeRead(byte[] stored) {
+        AttributeRead read = READS.get();
+        if (read != null) {
+            read.stored = stored;
+        }
+    }
+
+    @Override
+    public DeltaSession createSession() {
+        return new DeltaSession(delegate.createSession(), SessionNearCache.UNKNOWN_STAMP, true);
+    }
+
+    @Override
+    public void save(DeltaSession session) {
+        List<String> changed = session.changedAttributes();
+        if (session.delegate == null && changed.isEmpty() && session.removed.isEmpty() && session.maxInactive == null) {
+            if (accessWriter == null) {
+                nearCache.touch(session.id, session.cached, session.lastAccessedTime);
+            } else if (session.queueAccess()) {
+                nearCache.accessed(session.id, session.cached, session.lastAccessedTime);
+            }
+            return;
+        }
+        S loaded = session.load();
+        if (loaded == null) {
+            nearCache.invalidate(session.id);
+            return;
+        }
+        session.passOnChanges(changed);
+        if (accessWriter == null || session.created) {
+            session.accessTime = session.lastAccessedTime;
+        } else {
+            session.queueAccess();
+        }
+        boolean wrote = !changed.isEmpty() || !session.removed.isEmpty();
+        session.removed.clear();
+        // taken before saving, which may read attributes without reporting their bytes
+        SessionNearCache.Entry entry = nearCache == null ? null
+                : session.snapshot(wrote ? SessionNearCache.UNKNOWN_STAMP : session.stamp);
+        delegate.save(loaded);
+        if (nearCache != null) {
+            nearCache.invalidate(session.id);
+            if (entry != null) {
+                nearCache.put(loaded.getId(), entry);
+            }
+        }
+    }
+
+    @Override
+    @Nullable
+    public DeltaSession findById(String id) {
+        if (nearCache != null) {
+            SessionNearCache.Entry entry = nearCache.get(id);
+            if (entry != null) {
+                return new DeltaSession(id, entry);
+            }
+        }
+        long stamp = nearCache == null ? SessionNearCache.UNKNOWN_STAMP : nearCache.stamp(id);
+        S session = delegate.findById(id);
+        return session == null ? null : new DeltaSession(session, stamp, false);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        if (nearCache != null) {
+            nearCache.invalidate(id);
+        }
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, DeltaSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, DeltaSession> sessions = new LinkedHashMap<>();
+        delegate.findByIndexNameAndIndexValue(indexName, indexValue)
+                .forEach((id, session) -> sessions.put(id, new DeltaSession(session, SessionNearCache.UNKNOWN_STAMP, false)));
+        return sessions;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.attributes.writes", written, LongAdder::sum)
+                .description("session attributes set during a request and written because their bytes changed")
+                .tag("result", "written")
+                .register(registry);
+        FunctionCounter.builder("session.attributes.writes", skipped, LongAdder::sum)
+                .description("session attributes set during a request and not written because their bytes are unchanged")
+                .tag("result", "skipped")
+                .register(registry);
+    }
+
+    /**
+     * Session backed by the underlying session, or by a near cache entry until it has to be written.
+     */
+    public final class DeltaSession implements Session {
+        private final String id;
+        private final long stamp;
+        @Nullable
+        private final SessionNearCache.Entry cached;
+        @Nullable
+        private S delegate;
+        private final Map<String, Object> set = new LinkedHashMap<>();
+        /**
+         * Attributes this request deserialized from the near cache entry.
+         */
+        private final Map<String, Object> copies = new HashMap<>();
+        private final Set<String> unsaved = new LinkedHashSet<>();
+        private final Set<String> removed = new LinkedHashSet<>();
+        private final Map<String, byte[]> storedBytes;
+        private final boolean created;
+        private Instant lastAccessedTime;
+        /**
+         * Last access stored for the session, or queued to be.
+         */
+        private Instant accessTime;
+        @Nullable
+        private Duration maxInactive;
+
+        private DeltaSession(S delegate, long stamp, boolean created) {
+            this.id = delegate.getId();
+            this.stamp = stamp;
+            this.cached = null;
+            this.delegate = delegate;
+            this.storedBytes = new HashMap<>();
+            this.created = created;
+            this.lastAccessedTime = delegate.getLastAccessedTime();
+            this.accessTime = lastAccessedTime;
+        }
+
+        private DeltaSession(String id, SessionNearCache.Entry cached) {
+            this.id = id;
+            this.stamp = cached.getStamp();
+            this.cached = cached;
+            this.storedBytes = new HashMap<>(cached.getBytes());
+            this.created = false;
+            this.lastAccessedTime = cached.getLastAccessedTime();
+            this.accessTime = lastAccessedTime;
+        }
+
+        @Override
+        public String getId() {
+            return delegate != null ? delegate.getId() : id;
+        }
+
+        @Override
+        public String changeSessionId() {
+            S loaded = load();
+            if (loaded == null) {
+                throw new IllegalStateException("Session was deleted");
+            }
+            return loaded.changeSessionId();
+        }
+
+        @Override
+        @Nullable
+        @SuppressWarnings("unchecked")
+        public <T> T getAttribute(String attributeName) {
+            Object value = set.get(attributeName);
+            return (T) (value != null ? value : read(attributeName));
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            Set<String> names = new LinkedHashSet<>(delegate != null
+                    ? delegate.getAttributeNames() : cached.getBytes().keySet());
+            names.removeAll(removed);
+            names.addAll(set.keySet());
+            return names;
+        }
+
+        @Override
+        public void setAttribute(String attributeName, @Nullable Object attributeValue) {
+            if (attributeValue == null) {
+                removeAttribute(attributeName);
+            } else {
+                set.put(attributeName, attributeValue);
+                unsaved.add(attributeName);
+                removed.remove(attributeName);
+            }
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            set.remove(attributeName);
+            copies.remove(attributeName);
+            unsaved.remove(attributeName);
+            storedBytes.remove(attributeName);
+            if (delegate != null) {
+                delegate.removeAttribute(attributeName);
+            }
+            removed.add(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate != null ? delegate.getCreationTime() : cached.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            this.lastAccessedTime = lastAccessedTime;
+            if (delegate != null && (accessWriter == null || created)) {
+                delegate.setLastAccessedTime(lastAccessedTime);
+            }
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return lastAccessedTime;
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            maxInactive = interval;
+            if (delegate != null) {
+                delegate.setMaxInactiveInterval(interval);
+            }
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            if (delegate != null) {
+                return delegate.getMaxInactiveInterval();
+            }
+            return maxInactive != null ? maxInactive : cached.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return !getMaxInactiveInterval().isNegative()
+                    && Instant.now().minus(getMaxInactiveInterval()).compareTo(lastAccessedTime) >= 0;
+        }
+
+        /**
+         * Value of the underlying session, remembering the bytes it is deserialized from, or a copy deserialized from
+         * the bytes of the near cache entry.
+         */
+        @Nullable
+        private Object read(String attributeName) {
+            Object copy = copies.get(attributeName);
+            if (copy != null || removed.contains(attributeName)) {
+                return copy;
+            }
+            if (delegate == null) {
+                byte[] bytes = cached.getBytes().get(attributeName);
+                copy = bytes == null ? null : conversionService.convert(bytes, BYTES, OBJECT);
+                if (copy != null) {
+                    copies.put(attributeName, copy);
+                }
+                return copy;
+            }
+            AttributeRead read = new AttributeRead();
+            READS.set(read);
+            try {
+                Object value = delegate.getAttribute(attributeName);
+                if (read.stored != null) {
+                    storedBytes.put(attributeName, read.stored);
+                }
+                return value;
+            } finally {
+                READS.remove();
+            }
+        }
+
+        /**
+         * The underlying session, loaded with the changes of this request if the session came from the near cache.
+         */
+        @Nullable
+        private S load() {
+            if (delegate == null) {
+                S loaded = DeltaSessionRepository.this.delegate.findById(id);
+                if (loaded == null) {
+                    return null;
+                }
+                if (accessWriter == null) {
+                    loaded.setLastAccessedTime(lastAccessedTime);
+                }
+                if (maxInactive != null) {
+                    loaded.setMaxInactiveInterval(maxInactive);
+                }
+                removed.forEach(loaded::removeAttribute);
+                delegate = loaded;
+            }
+            return delegate;
+        }
+
+        /**
+         * Names of the attributes set since the last save whose bytes differ from the stored ones, with their new
+         * bytes remembered.
+         */
+        private List<String> changedAttributes() {
+            if (unsaved.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<String> changed = new ArrayList<>(unsaved.size());
+            Map<String, byte[]> bytesOf = new HashMap<>();
+            for (String name : unsaved) {
+                byte[] bytes = (byte[]) conversionService.convert(set.get(name), OBJECT, BYTES);
+                if (!storedBytes.containsKey(name)) {
+                    read(name);
+                }
+                if (bytes != null && Arrays.equals(bytes, storedBytes.get(name))) {
+                    skipped.increment();
+                } else {
+                    changed.add(name);
+                    if (bytes != null) {
+                        bytesOf.put(name, bytes);
+                    }
+                }
+            }
+            unsaved.clear();
+            storedBytes.keySet().removeAll(changed);
+            storedBytes.putAll(bytesOf);
+            return changed;
+        }
+
+        private void passOnChanges(List<String> changed) {
+            for (String name : changed) {
+                delegate.setAttribute(name, set.get(name));
+                written.increment();
+            }
+        }
+
+        /**
+         * Queues the last access with the access writer, unless the stored one is recent enough.
+         */
+        private boolean queueAccess() {
+            if (!accessWriter.touch(getId(), accessTime, lastAccessedTime, getMaxInactiveInterval())) {
+                return false;
+            }
+            accessTime = lastAccessedTime;
+            return true;
+        }
+
+        /**
+         * Entry for the near cache, or {@code null} if the bytes of an attribute are unknown.
+         */
+        @Nullable
+        private SessionNearCache.Entry snapshot(long stamp) {
+            Map<String, byte[]> bytes = new HashMap<>();
+            for (String name : getAttributeNames()) {
+                if (!storedBytes.containsKey(name)) {
+                    read(name);
+                }
+                byte[] stored = storedBytes.get(name);
+                if (stored == null) {
+                    return null;
+                }
+                bytes.put(name, stored);
+            }
+            return new SessionNearCache.Entry(stamp, getCreationTime(), accessTime, getMaxInactiveInterval(), bytes);
+        }
+    }
+
+    private static final class AttributeRead {
+        @Nullable
+        private byte[] stored;
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.component;
 
-import com.example.utils.SubMillis;
+import com.example.annotation.TimedMethod;
+import com.example.jfr.TimedMethodEvent;
+import com.example.utils.DurationFormatter;
+import com.example.utils.RequestTrace;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
@@ -10,43 +13,31 @@ import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
-import java.util.Locale;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import static com.example.utils.LongStringUtils.formatLongString;
-import static java.time.temporal.ChronoField.*;
 
 @Slf4j
 @Aspect
 @Component
 public class ExecutionTimeLogger {
 
-    private static final DateTimeFormatter TIME_FORMATTER = new DateTimeFormatterBuilder()
-            .appendValue(HOUR_OF_DAY, 2)
-            .appendLiteral(':')
-            .appendValue(MINUTE_OF_HOUR, 2)
-            .optionalStart()
-            .appendLiteral(':')
-            .appendValue(SECOND_OF_MINUTE, 2)
-            .optionalStart()
-            .appendLiteral('.')
-            .appendFraction(MILLI_OF_SECOND, 3, 3, false)
-            .optionalStart()
-            .appendLiteral("ms ")
-            .optionalStart()
-            .appendFraction(SubMillis.MICROS_OF_MILLI_SECOND, 0, 3, false)
-            .appendLiteral("us ")
-            .appendFraction(SubMillis.NANOS_OF_MICRO_SECOND, 0, 3, false)
-            .appendLiteral("ns")
-            .toFormatter(Locale.ROOT);
-    private static final double[] PERCENTILES = {0.5, 0.9, 0.95, 0.99, 0.999};
+    private static final TimedMethod DEFAULTS = Defaults.class.getAnnotation(TimedMethod.class);
 
     private final MeterRegistry registry;
+    /**
+     * Copy-on-write identity map, the set of timed methods is small and fixed after warm-up.
+     */
+    private volatile Map<Object, MethodMeters> meters = new IdentityHashMap<>();
 
     public ExecutionTimeLogger(MeterRegistry registry) {
         this.registry = registry;
@@ -74,50 +65,131 @@ public class ExecutionTimeLogger {
 
     @Around("publicMethodInsideAClassMarkedWithAtTimed() || methodMarkedWithAtTimed()")
     public Object around(ProceedingJoinPoint point) throws Throwable {
-        Signature signature = point.getSignature();
-        Timer timer = buildTimer(signature);
-        Timer.Sample sample = Timer.start(registry);
+        MethodMeters methodMeters = getMethodMeters(point);
+        TimedMethodEvent event = new TimedMethodEvent();
+        event.begin();
+        long start = System.nanoTime();
+        RequestTrace trace = RequestTrace.current();
+        int span = trace == null ? -1 : trace.enter(methodMeters.spanName, start);
 
         Object result = null;
+        boolean failed = true;
         try {
             result = point.proceed();
+            failed = false;
         } finally {
-            long nanos = sample.stop(timer);
+            long nanos = System.nanoTime() - start;
+            event.end();
+            if (event.shouldCommit()) {
+                event.className = methodMeters.className;
+                event.methodName = methodMeters.methodName;
+                event.failed = failed;
+                event.commit();
+            }
+            methodMeters.timer.record(nanos, TimeUnit.NANOSECONDS);
+            if (trace != null) {
+                trace.exit(span, start + nanos);
+            }
 
-            logExecutionTime(signature, point.getArgs(), result, nanos);
+            logExecutionTime(methodMeters, point, result, nanos);
         }
 
         return result;
     }
 
-    private Timer buildTimer(Signature signature) {
-        String className = signature.getDeclaringTypeName();
-        String methodName = signature.getName();
+    private MethodMeters getMethodMeters(ProceedingJoinPoint point) {
+        Signature signature = point.getSignature();
+        Object key = signature instanceof MethodSignature ? ((MethodSignature) signature).getMethod() : signature;
+        MethodMeters methodMeters = meters.get(key);
+        if (methodMeters == null) {
+            methodMeters = registerMethodMeters(key, point);
+        }
+        return methodMeters;
+    }
+
+    private synchronized MethodMeters registerMethodMeters(Object key, ProceedingJoinPoint point) {
+        MethodMeters methodMeters = meters.get(key);
+        if (methodMeters == null) {
+            Signature signature = point.getSignature();
+            String className = signature.getDeclaringTypeName();
+            String methodName = signature.getName();
+            TimedMethod timedMethod = findTimedMethod(point);
+            methodMeters = new MethodMeters(className, methodName, buildTimer(className, methodName, timedMethod),
+                    timedMethod);
+            Map<Object, MethodMeters> copy = new IdentityHashMap<>(meters);
+            copy.put(key, methodMeters);
+            meters = copy;
+        }
+        return methodMeters;
+    }
+
+    private static TimedMethod findTimedMethod(ProceedingJoinPoint point) {
+        Signature signature = point.getSignature();
+        TimedMethod timedMethod = null;
+        if (signature instanceof MethodSignature) {
+            timedMethod = AnnotationUtils.findAnnotation(((MethodSignature) signature).getMethod(), TimedMethod.class);
+        }
+        if (timedMethod == null && point.getTarget() != null) {
+            timedMethod = AnnotationUtils.findAnnotation(ClassUtils.getUserClass(point.getTarget()), TimedMethod.class);
+        }
+        if (timedMethod == null && signature.getDeclaringType() != null) {
+            timedMethod = AnnotationUtils.findAnnotation(signature.getDeclaringType(), TimedMethod.class);
+        }
+        return timedMethod == null ? DEFAULTS : timedMethod;
+    }
 
-        return Timer.builder(className + "." + methodName)
+    private Timer buildTimer(String className, String methodName, TimedMethod timedMethod) {
+        Timer.Builder builder = Timer.builder(className + "." + methodName)
                 .tags(Tags.of("class", className, "method", methodName))
-                .publishPercentiles(PERCENTILES)
-                .register(registry);
+                .publishPercentileHistogram(timedMethod.histogram());
+        if (timedMethod.percentiles().length > 0) {
+            builder.publishPercentiles(timedMethod.percentiles());
+        }
+        return builder.register(registry);
     }
 
-    private void logExecutionTime(Signature signature, Object[] args, @Nullable Object result, long nanos) {
-        if (log.isInfoEnabled()) {
-            String duration = formatDuration(nanos);
-            String declaringTypeName = signature.getDeclaringTypeName();
-            String methodName = signature.getName();
+    private void logExecutionTime(MethodMeters methodMeters, ProceedingJoinPoint point, @Nullable Object result, long nanos) {
+        if (log.isInfoEnabled() && methodMeters.shouldLog(nanos)) {
+            String duration = DurationFormatter.format(nanos);
 
             if (log.isDebugEnabled()) {
-                log.debug("class: {}, method: {}, time: {} ({}), args {}, result {}", declaringTypeName,
-                        methodName, duration, nanos, formatLongString(args), formatLongString(result));
+                log.debug("class: {}, method: {}, time: {} ({}), args {}, result {}", methodMeters.className,
+                        methodMeters.methodName, duration, nanos, formatLongString(point.getArgs()), formatLongString(result));
             } else {
-                log.info("class: {}, method: {}, time: {} ({})", declaringTypeName, methodName,
+                log.info("class: {}, method: {}, time: {} ({})", methodMeters.className, methodMeters.methodName,
                         duration, nanos);
             }
         }
     }
 
-    static String formatDuration(long nanos) {
-        return TIME_FORMATTER.format(LocalTime.ofNanoOfDay(nanos));
+    private static final class MethodMeters {
+        private final String className;
+        private final String methodName;
+        private final String spanName;
+        private final Timer timer;
+        private final long logAboveNanos;
+        private final double logSampleRate;
+
+        private MethodMeters(String className, String methodName, Timer timer, TimedMethod timedMethod) {
+            this.className = className;
+            this.methodName = methodName;
+            this.spanName = className + "." + methodName;
+            this.timer = timer;
+            this.logAboveNanos = timedMethod.logAboveMillis() < 0
+                    ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(timedMethod.logAboveMillis());
+            this.logSampleRate = timedMethod.logSampleRate();
+        }
+
+        private boolean shouldLog(long nanos) {
+            if (nanos >= logAboveNanos || logSampleRate >= 1.0) {
+                return true;
+            }
+            return logSampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < logSampleRate;
+        }
+    }
+
+    @TimedMethod
+    private static final class Defaults {
     }
 
 }
@@ -1,20 +1,36 @@
 package com.example.component;
 
-import org.nustaq.serialization.FSTConfiguration;
+import com.example.jfr.SessionReadEvent;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
 @Component
 public class FastDeserializingConverter implements Converter<byte[], Object> {
-    private final FSTConfiguration conf;
+    private final SessionCodec codec;
 
     public FastDeserializingConverter() {
-        this.conf = FSTConfiguration.createDefaultConfiguration();
-        this.conf.setClassLoader(Thread.currentThread().getContextClassLoader());
+        this(new SessionCodec());
+    }
+
+    @Autowired
+    public FastDeserializingConverter(SessionCodec codec) {
+        this.codec = codec;
     }
 
     @Override
+    @Nullable
     public Object convert(byte[] source) {
-        return conf.asObject(source);
+        SessionReadEvent event = new SessionReadEvent();
+        event.begin();
+        Object attribute = codec.decode(source);
+        event.end();
+        if (event.shouldCommit()) {
+            event.type = attribute == null ? "null" : attribute.getClass().getName();
+            event.bytes = source.length;
+            event.commit();
+        }
+        return attribute;
     }
 }
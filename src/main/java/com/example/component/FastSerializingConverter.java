@@ -1,15 +1,34 @@
 package com.example.component;
 
-import org.nustaq.serialization.FSTConfiguration;
+import com.example.jfr.SessionWriteEvent;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
 @Component
 public class FastSerializingConverter implements Converter<Object, byte[]> {
-    private final FSTConfiguration conf = FSTConfiguration.createDefaultConfiguration();
+    private final SessionCodec codec;
+
+    public FastSerializingConverter() {
+        this(new SessionCodec());
+    }
+
+    @Autowired
+    public FastSerializingConverter(SessionCodec codec) {
+        this.codec = codec;
+    }
 
     @Override
     public byte[] convert(Object source) {
-        return conf.asByteArray(source);
+        SessionWriteEvent event = new SessionWriteEvent();
+        event.begin();
+        byte[] bytes = codec.encode(source);
+        event.end();
+        if (event.shouldCommit()) {
+            event.type = source.getClass().getName();
+            event.bytes = bytes.length;
+            event.commit();
+        }
+        return bytes;
     }
 }
@@ -0,0 +1,68 @@
+package com.example.component;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Exports queue depth, drops, shipped and spilled events and spill bytes of every {@link GelfShippingAppender}
+ * attached to a logger, tagged with the appender name.
+ */
+@Component
+public class GelfAppenderMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext)) {
+            return;
+        }
+        Map<GelfShippingAppender, Boolean> appenders = new IdentityHashMap<>();
+        for (Logger logger : ((LoggerContext) loggerFactory).getLoggerList()) {
+            for (Iterator<Appender<ILoggingEvent>> it = logger.iteratorForAppenders(); it.hasNext(); ) {
+                Appender<ILoggingEvent> appender = it.next();
+                if (appender instanceof GelfShippingAppender) {
+                    appenders.put((GelfShippingAppender) appender, Boolean.TRUE);
+                }
+            }
+        }
+        appenders.keySet().forEach(appender -> bind(registry, appender));
+    }
+
+    private static void bind(MeterRegistry registry, GelfShippingAppender appender) {
+        String name = appender.getName() == null ? "gelf" : appender.getName();
+        Gauge.builder("gelf.queue.depth", appender, GelfShippingAppender::getQueueDepth)
+                .description("Log events waiting to be shipped")
+                .tag("appender", name)
+                .register(registry);
+        FunctionCounter.builder("gelf.dropped", appender, GelfShippingAppender::getDropped)
+                .description("Log events dropped by the discarding threshold, a full queue or a full spill directory")
+                .tag("appender", name)
+                .register(registry);
+        FunctionCounter.builder("gelf.sent", appender, GelfShippingAppender::getSent)
+                .description("Log events shipped to the GELF input")
+                .tag("appender", name)
+                .register(registry);
+        FunctionCounter.builder("gelf.spilled", appender, GelfShippingAppender::getSpilled)
+                .description("Log events spilled to disk while the GELF input was unreachable")
+                .tag("appender", name)
+                .register(registry);
+        Gauge.builder("gelf.spill.bytes", appender, GelfShippingAppender::getSpillBytes)
+                .description("Compressed bytes spilled to disk and not yet replayed")
+                .tag("appender", name)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
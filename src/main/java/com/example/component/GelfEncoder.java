@@ -0,0 +1,128 @@
+package com.example.component;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Renders a log event as a GELF 1.1 JSON message: the formatted message, the stack trace as full message, logger,
+ * thread, MDC entries, the session id and user name captured on the logging thread as {@code _sid} and
+ * {@code _userName}, the fields of the former MDC keys, caller location when the event carries it, and fixed
+ * additional fields. Not thread-safe, owned by the shipping thread.
+ */
+public final class GelfEncoder {
+
+    private final String host;
+    private final String additionalFields;
+    private final StringBuilder json = new StringBuilder(1024);
+
+    public GelfEncoder(String host, Map<String, String> additionalFields) {
+        this.host = host;
+        StringBuilder fields = new StringBuilder();
+        additionalFields.forEach((name, value) -> appendField(fields, name, value));
+        this.additionalFields = fields.toString();
+    }
+
+    public byte[] encode(ILoggingEvent event, @Nullable String sessionId, @Nullable String userName) {
+        StringBuilder out = json;
+        out.setLength(0);
+        out.append("{\"version\":\"1.1\",\"host\":");
+        appendString(out, host);
+        out.append(",\"short_message\":");
+        String message = event.getFormattedMessage();
+        appendString(out, message == null || message.isEmpty() ? "-" : message);
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            out.append(",\"full_message\":");
+            appendString(out, ThrowableProxyUtil.asString(throwable));
+        }
+        long timestamp = event.getTimeStamp();
+        out.append(",\"timestamp\":").append(timestamp / 1000).append('.');
+        int millis = (int) (timestamp % 1000);
+        out.append((char) ('0' + millis / 100)).append((char) ('0' + millis / 10 % 10)).append((char) ('0' + millis % 10));
+        out.append(",\"level\":").append(syslogLevel(event.getLevel()));
+        appendField(out, "logger", event.getLoggerName());
+        appendField(out, "thread", event.getThreadName());
+        for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+            appendField(out, entry.getKey(), entry.getValue());
+        }
+        if (sessionId != null) {
+            appendField(out, "sid", sessionId);
+        }
+        if (userName != null) {
+            appendField(out, "userName", userName);
+        }
+        StackTraceElement[] callerData = event.hasCallerData() ? event.getCallerData() : null;
+        if (callerData != null && callerData.length > 0) {
+            StackTraceElement caller = callerData[0];
+            appendField(out, "file", caller.getFileName());
+            out.append(",\"_line\":").append(caller.getLineNumber());
+            appendField(out, "method", caller.getClassName() + "." + caller.getMethodName());
+        }
+        out.append(additionalFields).append('}');
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int syslogLevel(Level level) {
+        switch (level.toInt()) {
+            case Level.ERROR_INT:
+                return 3;
+            case Level.WARN_INT:
+                return 4;
+            case Level.INFO_INT:
+                return 6;
+            default:
+                return 7;
+        }
+    }
+
+    private static void appendField(StringBuilder out, String name, @Nullable String value) {
+        if (value == null || "id".equals(name)) {
+            return;
+        }
+        out.append(",\"_");
+        appendEscaped(out, name);
+        out.append("\":");
+        appendString(out, value);
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        appendEscaped(out, value);
+        out.append('"');
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.example.component;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.example.utils.MpscQueue;
+import com.example.utils.SpillDirectory;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships log events to a Graylog GELF TCP input without ever blocking the logging thread. Events are put into a
+ * bounded lock-free {@link MpscQueue}; once it is filled beyond {@code discardingThreshold} only WARN and ERROR events
+ * are still accepted, and a full queue drops events. A shipping thread encodes them with {@link GelfEncoder} and
+ * writes null-delimited frames in batches of up to {@code batchSize} with one socket write. While the input is
+ * unreachable batches are spilled gzip-compressed to a {@link SpillDirectory} and replayed, oldest first, before the
+ * next batch once it is reachable again; a batch that fails halfway may be shipped twice. Caller location is only
+ * extracted for the loggers listed in {@code callerDataLoggers}, by name prefix.
+ */
+public class GelfShippingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    private static final byte FRAME_END = 0;
+    private static final int MAX_IDLE_PARK_MILLIS = 100;
+
+    private String host = "localhost";
+    private int port = 12201;
+    private String originHost = "localhost";
+    private int queueCapacity = 8192;
+    private int discardingThreshold = -1;
+    private int batchSize = 256;
+    private long flushIntervalMillis = 200;
+    private int connectTimeoutMillis = 1000;
+    private long reconnectDelayMillis = 500;
+    private String spillDirectory = "logs/gelf-spill";
+    private long maxSpillBytes = 100L * 1024 * 1024;
+    private long spillSegmentBytes = 4L * 1024 * 1024;
+    private final List<String> callerDataLoggers = new ArrayList<>();
+    private final Map<String, String> additionalFields = new LinkedHashMap<>();
+
+    @Nullable
+    private MpscQueue<Entry> queue;
+    @Nullable
+    private SpillDirectory spill;
+    @Nullable
+    private Thread shipper;
+    private volatile boolean running;
+    private volatile long sent;
+    private volatile long spilled;
+    private volatile long spillDropped;
+
+    // owned by the shipping thread
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream(64 * 1024);
+    private int batchEvents;
+    @Nullable
+    private GelfEncoder encoder;
+    @Nullable
+    private Socket socket;
+    @Nullable
+    private OutputStream out;
+    private long nextConnectMillis;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        try {
+            queue = new MpscQueue<>(Integer.highestOneBit(Math.max(1, queueCapacity - 1)) << 1);
+            spill = new SpillDirectory(Paths.get(spillDirectory), maxSpillBytes, spillSegmentBytes);
+        } catch (IllegalArgumentException | IOException e) {
+            addError("cannot start GELF appender " + getName(), e);
+            return;
+        }
+        if (discardingThreshold < 0) {
+            discardingThreshold = queue.capacity() / 5;
+        }
+        encoder = new GelfEncoder(originHost, additionalFields);
+        running = true;
+        Thread thread = new Thread(this::shipLoop, "gelf-shipper-" + getName());
+        thread.setDaemon(true);
+        shipper = thread;
+        super.start();
+        thread.start();
+    }
+
+    /**
+     * Ships or spills every event accepted so far, waiting at most {@code connectTimeoutMillis} beyond that.
+     */
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        Thread thread = shipper;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(flushIntervalMillis + 2L * connectTimeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            shipper = null;
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        MpscQueue<Entry> current = queue;
+        if (current == null) {
+            return;
+        }
+        if (current.remainingCapacity() < discardingThreshold && event.getLevel().toInt() < Level.WARN_INT) {
+            current.drop();
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        if (isCallerDataLogger(event.getLoggerName())) {
+            event.getCallerData();
+        }
+        String sessionId = null;
+        String userName = null;
+        if (RequestLoggingContext.isActive()) {
+            sessionId = RequestLoggingContext.getSessionId();
+            userName = RequestLoggingContext.getUserName();
+            if (userName == null) {
+                userName = RequestLoggingContext.NO_USER;
+            }
+        }
+        current.offer(new Entry(event, sessionId, userName));
+    }
+
+    private boolean isCallerDataLogger(String loggerName) {
+        for (int i = 0; i < callerDataLoggers.size(); i++) {
+            if (loggerName.startsWith(callerDataLoggers.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void shipLoop() {
+        long idleParkNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(flushIntervalMillis, MAX_IDLE_PARK_MILLIS));
+        long lastShipped = System.currentTimeMillis();
+        while (running || queue.size() > 0) {
+            int count = queue.drain(this::encode, batchSize - batchEvents);
+            long now = System.currentTimeMillis();
+            if (batchEvents >= batchSize || batchEvents > 0 && (now - lastShipped >= flushIntervalMillis || !running)) {
+                ship();
+                lastShipped = now;
+            } else if (batchEvents == 0 && !spill.isEmpty() && now >= nextConnectMillis) {
+                replay();
+            }
+            if (count == 0 && running) {
+                LockSupport.parkNanos(this, idleParkNanos);
+            }
+        }
+        if (batchEvents > 0) {
+            ship();
+        }
+        disconnect();
+    }
+
+    private void encode(Entry entry) {
+        try {
+            batch.writeBytes(encoder.encode(entry.event, entry.sessionId, entry.userName));
+            batch.write(FRAME_END);
+            batchEvents++;
+        } catch (RuntimeException e) {
+            addWarn("cannot encode log event", e);
+        }
+    }
+
+    private void ship() {
+        byte[] bytes = batch.toByteArray();
+        int events = batchEvents;
+        batch.reset();
+        batchEvents = 0;
+        if (connect() && replay() && write(bytes, 0, bytes.length)) {
+            sent += events;
+            return;
+        }
+        spill(bytes, events);
+    }
+
+    /**
+     * @return true when nothing is left to replay
+     */
+    private boolean replay() {
+        if (spill.isEmpty()) {
+            return true;
+        }
+        if (!connect()) {
+            return false;
+        }
+        try {
+            spill.replay(content -> {
+                if (!write(content, 0, content.length)) {
+                    throw new IOException("GELF input unreachable during replay");
+                }
+            });
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void spill(byte[] bytes, int events) {
+        try {
+            if (spill.spill(bytes, 0, bytes.length)) {
+                spilled += events;
+                return;
+            }
+        } catch (IOException e) {
+            addWarn("cannot spill log events to " + spillDirectory, e);
+        }
+        spillDropped += events;
+    }
+
+    private boolean connect() {
+        if (out != null) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now < nextConnectMillis) {
+            return false;
+        }
+        Socket opened = new Socket();
+        try {
+            opened.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            opened.setTcpNoDelay(true);
+            socket = opened;
+            out = opened.getOutputStream();
+            return true;
+        } catch (IOException e) {
+            closeQuietly(opened);
+            nextConnectMillis = now + reconnectDelayMillis;
+            return false;
+        }
+    }
+
+    private boolean write(byte[] bytes, int offset, int length) {
+        OutputStream current = out;
+        if (current == null) {
+            return false;
+        }
+        try {
+            current.write(bytes, offset, length);
+            current.flush();
+            return true;
+        } catch (IOException e) {
+            disconnect();
+            nextConnectMillis = System.currentTimeMillis() + reconnectDelayMillis;
+            return false;
+        }
+    }
+
+    private void disconnect() {
+        if (socket != null) {
+            closeQuietly(socket);
+        }
+        socket = null;
+        out = null;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing left to do
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue == null ? 0 : queue.capacity();
+    }
+
+    /**
+     * Events dropped by the discarding threshold, a full queue or a full spill directory.
+     */
+    public long getDropped() {
+        return (queue == null ? 0 : queue.dropped()) + spillDropped;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getSpilled() {
+        return spilled;
+    }
+
+    public long getSpillBytes() {
+        return spill == null ? 0 : spill.bytes();
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public void setOriginHost(String originHost) {
+        this.originHost = originHost;
+    }
+
+    /**
+     * Rounded up to a power of two.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Below this many free slots DEBUG and INFO events are dropped, a fifth of the capacity by default.
+     */
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public void setReconnectDelayMillis(long reconnectDelayMillis) {
+        this.reconnectDelayMillis = reconnectDelayMillis;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public void setMaxSpillBytes(long maxSpillBytes) {
+        this.maxSpillBytes = maxSpillBytes;
+    }
+
+    public void setSpillSegmentBytes(long spillSegmentBytes) {
+        this.spillSegmentBytes = spillSegmentBytes;
+    }
+
+    /**
+     * Comma-separated logger name prefixes whose events carry their caller location.
+     */
+    public void setCallerDataLoggers(String loggers) {
+        callerDataLoggers.clear();
+        for (String logger : loggers.split(",")) {
+            if (!logger.isBlank()) {
+                callerDataLoggers.add(logger.trim());
+            }
+        }
+    }
+
+    /**
+     * Comma-separated {@code name=value} fields added to every message.
+     */
+    public void setAdditionalFields(String fields) {
+        for (String field : fields.split(",")) {
+            int separator = field.indexOf('=');
+            if (separator > 0) {
+                additionalFields.put(field.substring(0, separator).trim(), field.substring(separator + 1).trim());
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final ILoggingEvent event;
+        @Nullable
+        private final String sessionId;
+        @Nullable
+        private final String userName;
+
+        private Entry(ILoggingEvent event, @Nullable String sessionId, @Nullable String userName) {
+            this.event = event;
+            this.sessionId = sessionId;
+            this.userName = userName;
+        }
+    }
+}
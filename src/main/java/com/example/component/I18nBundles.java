@@ -0,0 +1,120 @@
+package com.example.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Complete message bundles per fallback chain, serialized to JSON and gzipped once per catalog version. Language tags
+ * are resolved to the languages of their chain that the catalog has, so any number of tags share a few bundles.
+ */
+@Component
+@ConditionalOnProperty(name = "i18n.catalog.enable")
+public class I18nBundles {
+
+    private final MessageBundleSource messageSource;
+    private final MessageCatalog messageCatalog;
+    private final ObjectMapper objectMapper;
+    private final LocaleFallbacks localeFallbacks;
+    private final ConcurrentMap<String, Bundle> bundles = new ConcurrentHashMap<>();
+
+    @Autowired
+    public I18nBundles(MessageBundleSource messageSource, MessageCatalog messageCatalog, ObjectMapper objectMapper,
+                       LocaleFallbacks localeFallbacks) {
+        this.messageSource = messageSource;
+        this.messageCatalog = messageCatalog;
+        this.objectMapper = objectMapper;
+        this.localeFallbacks = localeFallbacks;
+    }
+
+    /**
+     * @return the bundle of the locale, or {@code null} when the catalog has no messages in its own language
+     */
+    @Nullable
+    public Bundle get(Locale locale) {
+        String chain = supportedChain(locale);
+        if (chain == null) {
+            return null;
+        }
+        long version = messageCatalog.getVersion();
+        Bundle bundle = bundles.get(chain);
+        if (bundle != null && bundle.catalogVersion == version) {
+            return bundle;
+        }
+
+        bundle = build(locale, version);
+        bundles.put(chain, bundle);
+        return bundle;
+    }
+
+    @Nullable
+    private String supportedChain(Locale locale) {
+        List<String> chain = localeFallbacks.chainFor(locale);
+        if (messageCatalog.getTemplates(chain.get(0)).isEmpty()) {
+            return null;
+        }
+        StringBuilder supported = new StringBuilder();
+        for (String lang : chain) {
+            if (!messageCatalog.getTemplates(lang).isEmpty()) {
+                supported.append(supported.length() == 0 ? "" : ",").append(lang);
+            }
+        }
+        return supported.toString();
+    }
+
+    private Bundle build(Locale locale, long version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new TreeMap<>(messageSource.getAllMessages(locale)));
+            return new Bundle(json, gzip(json), DigestUtils.md5DigestAsHex(json), version);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot serialize message bundle for " + locale, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Getter
+    public static final class Bundle {
+        private final byte[] json;
+        private final byte[] gzippedJson;
+        /**
+         * Hash of the JSON content, stable across restarts as long as the messages do not change.
+         */
+        private final String version;
+        private final String eTag;
+        private final String gzippedETag;
+        private final long catalogVersion;
+
+        private Bundle(byte[] json, byte[] gzippedJson, String version, long catalogVersion) {
+            this.json = json;
+            this.gzippedJson = gzippedJson;
+            this.version = version;
+            this.eTag = "\"" + version + "\"";
+            this.gzippedETag = "\"" + version + "-gzip\"";
+            this.catalogVersion = catalogVersion;
+        }
+    }
+}
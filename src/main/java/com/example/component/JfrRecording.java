@@ -0,0 +1,81 @@
+package com.example.component;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Continuous flight recording with a JDK profile plus the application events of {@value #SETTINGS}. The recording
+ * keeps the last {@code max-age} on disk and is written to {@code destination} when the application stops.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "logging.custom.jfr.enable")
+public class JfrRecording {
+
+    static final String SETTINGS = "jfr/demo.jfc";
+
+    private final String profile;
+    private final Duration maxAge;
+    private final long maxSize;
+    private final Path destination;
+    private final Recording recording = new Recording();
+
+    @Autowired
+    public JfrRecording(@Value("${logging.custom.jfr.profile:default}") String profile,
+                        @Value("${logging.custom.jfr.max-age:6h}") Duration maxAge,
+                        @Value("${logging.custom.jfr.max-size:268435456}") long maxSize,
+                        @Value("${logging.custom.jfr.destination:logs/demo.jfr}") String destination) {
+        this.profile = profile;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.destination = Paths.get(destination);
+    }
+
+    @PostConstruct
+    public void start() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration(profile).getSettings());
+        try (Reader reader = new InputStreamReader(new ClassPathResource(SETTINGS).getInputStream(),
+                StandardCharsets.UTF_8)) {
+            settings.putAll(Configuration.create(reader).getSettings());
+        }
+        Path parent = destination.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        recording.setName("demo");
+        recording.setSettings(settings);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize);
+        recording.setDestination(destination);
+        recording.setDumpOnExit(true);
+        recording.start();
+        log.info("flight recording started, profile: {}, max age: {}, destination: {}", profile, maxAge, destination);
+    }
+
+    @PreDestroy
+    public void stop() {
+        recording.stop();
+        recording.close();
+    }
+}
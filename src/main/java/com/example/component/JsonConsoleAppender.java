@@ -0,0 +1,38 @@
+package com.example.component;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.status.ErrorStatus;
+
+import java.io.IOException;
+
+/**
+ * Console appender that lets a {@link JsonLogEncoder} write each event straight from its reused buffer into the
+ * stream, and leaves the event as is instead of preparing it for deferred processing, which would format the message
+ * and copy the MDC once more.
+ */
+public class JsonConsoleAppender extends ConsoleAppender<ILoggingEvent> {
+
+    @Override
+    protected void subAppend(ILoggingEvent event) {
+        if (!isStarted()) {
+            return;
+        }
+        if (!(getEncoder() instanceof JsonLogEncoder)) {
+            super.subAppend(event);
+            return;
+        }
+        lock.lock();
+        try {
+            ((JsonLogEncoder) getEncoder()).encodeTo(event, getOutputStream());
+            if (isImmediateFlush()) {
+                getOutputStream().flush();
+            }
+        } catch (IOException e) {
+            started = false;
+            addStatus(new ErrorStatus("IO failure in appender", this, e));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
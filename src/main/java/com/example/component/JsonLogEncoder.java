@@ -0,0 +1,421 @@
+package com.example.component;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes an event as one line of JSON straight into a reused per-thread byte buffer: UTC timestamp, level, logger,
+ * thread, the message rendered from its pattern and arguments, MDC entries, the request session id and user name,
+ * fixed {@code customFields} and the stack trace. Logger names and MDC keys are escaped once and cached, numbers and
+ * strings are encoded to UTF-8 without intermediate strings. {@link #encodeTo(ILoggingEvent, OutputStream)} allocates
+ * nothing for an event without exception; {@link #encode(ILoggingEvent)} copies the line for appenders that need an
+ * array.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final int MAX_CACHED_NAMES = 10_000;
+    private static final int INITIAL_BUFFER = 1024;
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] LEVELS = new byte[Level.ERROR_INT + 1][];
+
+    static {
+        for (Level level : new Level[]{Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR}) {
+            LEVELS[level.toInt()] = (",\"level\":\"" + level + "\"").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final ConcurrentMap<String, byte[]> loggerNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, byte[]> mdcKeys = new ConcurrentHashMap<>();
+    private final Map<String, String> customFields = new LinkedHashMap<>();
+    private byte[] customFieldBytes = new byte[0];
+    private final ThreadLocal<Output> outputs = ThreadLocal.withInitial(Output::new);
+
+    @Override
+    public void start() {
+        Output output = new Output();
+        customFields.forEach((name, value) -> {
+            output.writeField(name);
+            output.writeString(value);
+        });
+        customFieldBytes = Arrays.copyOf(output.bytes, output.size);
+        super.start();
+    }
+
+    @Override
+    @Nullable
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        Output output = render(event);
+        byte[] line = Arrays.copyOf(output.bytes, output.size);
+        output.release();
+        return line;
+    }
+
+    @Override
+    @Nullable
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    public void encodeTo(ILoggingEvent event, OutputStream out) throws IOException {
+        Output output = render(event);
+        out.write(output.bytes, 0, output.size);
+        output.release();
+    }
+
+    private Output render(ILoggingEvent event) {
+        Output output = outputs.get();
+        output.size = 0;
+        output.writeAscii("{\"@timestamp\":\"");
+        output.writeTimestamp(event.getTimeStamp());
+        output.writeByte('"');
+        output.writeBytes(LEVELS[event.getLevel().toInt()]);
+        output.writeBytes(escapedName(loggerNames, ",\"logger\":", event.getLoggerName()));
+        output.writeAscii(",\"thread\":");
+        output.writeString(event.getThreadName());
+        output.writeAscii(",\"message\":\"");
+        writeMessage(output, event);
+        output.writeByte('"');
+        event.getMDCPropertyMap().forEach(output);
+        if (RequestLoggingContext.isActive()) {
+            writeOptionalField(output, "sid", RequestLoggingContext.getSessionId());
+            writeOptionalField(output, "user", RequestLoggingContext.getUserName());
+        }
+        output.writeBytes(customFieldBytes);
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            output.writeAscii(",\"stack_trace\":\"");
+            writeThrowable(output, throwable, "");
+            output.writeByte('"');
+        }
+        output.writeAscii("}\n");
+        return output;
+    }
+
+    /**
+     * The prefix followed by the quoted and escaped name, cached per name.
+     */
+    private byte[] escapedName(ConcurrentMap<String, byte[]> cache, String prefix, String name) {
+        byte[] cached = cache.get(name);
+        if (cached == null) {
+            Output output = new Output();
+            output.writeAscii(prefix);
+            output.writeString(name);
+            cached = Arrays.copyOf(output.bytes, output.size);
+            if (cache.size() < MAX_CACHED_NAMES) {
+                cache.put(name, cached);
+            }
+        }
+        return cached;
+    }
+
+    private static void writeOptionalField(Output output, String name, @Nullable String value) {
+        if (value != null) {
+            output.writeField(name);
+            output.writeString(value);
+        }
+    }
+
+    /**
+     * Renders {@code {}} placeholders like SLF4J; patterns with escaped placeholders and array arguments are left to
+     * the formatted message of the event.
+     */
+    private static void writeMessage(Output output, ILoggingEvent event) {
+        String pattern = event.getMessage();
+        Object[] arguments = event.getArgumentArray();
+        if (pattern == null) {
+            output.writeEscaped("null");
+            return;
+        }
+        if (arguments == null || arguments.length == 0) {
+            output.writeEscaped(pattern);
+            return;
+        }
+        if (pattern.indexOf('\\') >= 0 || hasArray(arguments)) {
+            output.writeEscaped(event.getFormattedMessage());
+            return;
+        }
+        int argument = 0;
+        int start = 0;
+        int length = pattern.length();
+        for (int i = 0; i < length - 1; i++) {
+            if (pattern.charAt(i) == '{' && pattern.charAt(i + 1) == '}' && argument < arguments.length) {
+                output.writeEscaped(pattern, start, i);
+                output.writeValue(arguments[argument++]);
+                start = i + 2;
+                i++;
+            }
+        }
+        output.writeEscaped(pattern, start, length);
+    }
+
+    private static boolean hasArray(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument != null && argument.getClass().isArray()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeThrowable(Output output, IThrowableProxy throwable, String prefix) {
+        output.writeEscaped(prefix);
+        output.writeEscaped(throwable.getClassName());
+        if (throwable.getMessage() != null) {
+            output.writeEscaped(": ");
+            output.writeEscaped(throwable.getMessage());
+        }
+        StackTraceElementProxy[] frames = throwable.getStackTraceElementProxyArray();
+        int framesInCommon = throwable.getCommonFrames();
+        for (int i = 0; i < frames.length - framesInCommon; i++) {
+            output.writeEscaped("\n\tat ");
+            output.writeEscaped(frames[i].getStackTraceElement().toString());
+        }
+        if (framesInCommon > 0) {
+            output.writeEscaped("\n\t... ");
+            output.writeLong(framesInCommon);
+            output.writeEscaped(" common frames omitted");
+        }
+        for (IThrowableProxy suppressed : throwable.getSuppressed()) {
+            output.writeEscaped("\n");
+            writeThrowable(output, suppressed, CoreConstants.SUPPRESSED);
+        }
+        if (throwable.getCause() != null) {
+            output.writeEscaped("\n");
+            writeThrowable(output, throwable.getCause(), CoreConstants.CAUSED_BY);
+        }
+    }
+
+    /**
+     * Comma-separated {@code name=value} fields added to every line.
+     */
+    public void setCustomFields(String fields) {
+        for (String field : fields.split(",")) {
+            int separator = field.indexOf('=');
+            if (separator > 0) {
+                customFields.put(field.substring(0, separator).trim(), field.substring(separator + 1).trim());
+            }
+        }
+    }
+
+    /**
+     * Reused line buffer of one thread; as the MDC visitor it writes each entry as a field.
+     */
+    private final class Output implements BiConsumer<String, String> {
+        private byte[] bytes = new byte[INITIAL_BUFFER];
+        private int size;
+        private long cachedSecond = Long.MIN_VALUE;
+        private final byte[] cachedDateTime = new byte[20];
+
+        @Override
+        public void accept(String key, String value) {
+            if (value != null) {
+                writeBytes(escapedName(mdcKeys, ",", key));
+                writeByte(':');
+                writeString(value);
+            }
+        }
+
+        private void release() {
+            if (bytes.length > MAX_RETAINED_BUFFER) {
+                bytes = new byte[INITIAL_BUFFER];
+            }
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        private void writeByte(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        private void writeBytes(byte[] source) {
+            ensure(source.length);
+            System.arraycopy(source, 0, bytes, size, source.length);
+            size += source.length;
+        }
+
+        private void writeAscii(String ascii) {
+            ensure(ascii.length());
+            for (int i = 0; i < ascii.length(); i++) {
+                bytes[size++] = (byte) ascii.charAt(i);
+            }
+        }
+
+        private void writeField(String name) {
+            writeAscii(",");
+            writeString(name);
+            writeByte(':');
+        }
+
+        private void writeString(@Nullable String value) {
+            if (value == null) {
+                writeAscii("null");
+                return;
+            }
+            writeByte('"');
+            writeEscaped(value);
+            writeByte('"');
+        }
+
+        private void writeValue(@Nullable Object value) {
+            if (value instanceof CharSequence) {
+                writeEscaped((CharSequence) value, 0, ((CharSequence) value).length());
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                    || value instanceof Byte) {
+                writeLong(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                writeAscii((Boolean) value ? "true" : "false");
+            } else if (value instanceof Enum) {
+                writeEscaped(((Enum<?>) value).name());
+            } else {
+                writeEscaped(String.valueOf(value));
+            }
+        }
+
+        private void writeEscaped(CharSequence value) {
+            writeEscaped(value, 0, value.length());
+        }
+
+        private void writeEscaped(CharSequence value, int start, int end) {
+            ensure((end - start) * 6);
+            for (int i = start; i < end; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c >= 0x20 && c != '"' && c != '\\') {
+                        bytes[size++] = (byte) c;
+                    } else {
+                        writeEscapedAscii(c);
+                    }
+                } else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xC0 | c >> 6);
+                    bytes[size++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    bytes[size++] = '?';
+                } else {
+                    bytes[size++] = (byte) (0xE0 | c >> 12);
+                    bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+        }
+
+        private void writeEscapedAscii(char c) {
+            ensure(6);
+            bytes[size++] = '\\';
+            switch (c) {
+                case '"':
+                case '\\':
+                    bytes[size++] = (byte) c;
+                    break;
+                case '\n':
+                    bytes[size++] = 'n';
+                    break;
+                case '\r':
+                    bytes[size++] = 'r';
+                    break;
+                case '\t':
+                    bytes[size++] = 't';
+                    break;
+                default:
+                    bytes[size++] = 'u';
+                    bytes[size++] = '0';
+                    bytes[size++] = '0';
+                    bytes[size++] = HEX[c >> 4];
+                    bytes[size++] = HEX[c & 0xF];
+            }
+        }
+
+        private void writeLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                writeAscii("-9223372036854775808");
+                return;
+            }
+            ensure(20);
+            if (value < 0) {
+                bytes[size++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = size + digits - 1; i >= size; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += digits;
+        }
+
+        /**
+         * ISO-8601 UTC with milliseconds; the date and time up to the second is rendered once per second.
+         */
+        private void writeTimestamp(long millis) {
+            long second = Math.floorDiv(millis, 1000L);
+            if (second != cachedSecond) {
+                LocalDateTime time = LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC);
+                int position = 0;
+                position = digits(time.getYear(), 4, position);
+                cachedDateTime[position++] = '-';
+                position = digits(time.getMonthValue(), 2, position);
+                cachedDateTime[position++] = '-';
+                position = digits(time.getDayOfMonth(), 2, position);
+                cachedDateTime[position++] = 'T';
+                position = digits(time.getHour(), 2, position);
+                cachedDateTime[position++] = ':';
+                position = digits(time.getMinute(), 2, position);
+                cachedDateTime[position++] = ':';
+                position = digits(time.getSecond(), 2, position);
+                cachedDateTime[position] = '.';
+                cachedSecond = second;
+            }
+            writeBytes(cachedDateTime);
+            int milli = (int) Math.floorMod(millis, 1000L);
+            ensure(4);
+            bytes[size++] = (byte) ('0' + milli / 100);
+            bytes[size++] = (byte) ('0' + milli / 10 % 10);
+            bytes[size++] = (byte) ('0' + milli % 10);
+            bytes[size++] = 'Z';
+        }
+
+        private int digits(int value, int count, int position) {
+            for (int i = position + count - 1; i >= position; i--) {
+                cachedDateTime[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            return position + count;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.component;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/latency/interval} returns the latencies since its previous call,
+ * {@code /actuator/latency/cumulative?reset=true} the latencies since start or the previous reset and resets them,
+ * {@code DELETE /actuator/latency} resets them.
+ */
+@Component
+@Endpoint(id = "latency")
+@ConditionalOnProperty(name = "logging.custom.latency.enable")
+public class LatencyEndpoint {
+
+    private final LatencyRecorder latencyRecorder;
+
+    public LatencyEndpoint(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    @ReadOperation
+    public Map<String, LatencyRecorder.Snapshot> latency(@Selector String view, @Nullable Boolean reset) {
+        if ("interval".equals(view)) {
+            return latencyRecorder.interval();
+        }
+        if ("cumulative".equals(view)) {
+            return latencyRecorder.cumulative(Boolean.TRUE.equals(reset));
+        }
+        throw new InvalidEndpointRequestException("unknown view " + view, "expected interval or cumulative");
+    }
+
+    @DeleteOperation
+    public void reset() {
+        latencyRecorder.reset();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.component;
+
+import com.example.utils.BoundedKeys;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request latency per HTTP method and URI template in HDR histograms. Request threads record into a wait-free
+ * {@link Recorder}; readers swap out its interval histogram and fold it into the interval and cumulative views.
+ * Values are microseconds with two significant digits up to a minute, about 20 KB per histogram. Endpoints beyond
+ * {@link #MAX_ENDPOINTS} share the URI template {@value BoundedKeys#OTHER}.
+ */
+@Component
+@ConditionalOnProperty(name = "logging.custom.latency.enable")
+public class LatencyRecorder {
+
+    static final int MAX_ENDPOINTS = 512;
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final BoundedKeys<Key, Latency> latencies = new BoundedKeys<>(MAX_ENDPOINTS,
+            key -> new Key(key.method, BoundedKeys.OTHER), key -> new Latency());
+
+    public void record(String method, String uriTemplate, long nanos) {
+        Latency latency = latencies.get(new Key(method, uriTemplate));
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1), HIGHEST_MICROS);
+        latency.recorder.recordValue(micros);
+    }
+
+    /**
+     * Latencies recorded since the previous interval read.
+     */
+    public Map<String, Snapshot> interval() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        latencies.forEach((key, latency) -> snapshots.put(key.toString(), latency.interval()));
+        return snapshots;
+    }
+
+    /**
+     * Latencies recorded since start or the previous reset, optionally resetting them once read.
+     */
+    public Map<String, Snapshot> cumulative(boolean reset) {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        latencies.forEach((key, latency) -> snapshots.put(key.toString(), latency.cumulative(reset)));
+        return snapshots;
+    }
+
+    public void reset() {
+        latencies.values().forEach(latency -> latency.cumulative(true));
+    }
+
+    private static final class Latency {
+        private final Recorder recorder = new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram interval = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram cumulative = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        @Nullable
+        private Histogram recycled;
+
+        private synchronized void harvest() {
+            recycled = recorder.getIntervalHistogram(recycled);
+            interval.add(recycled);
+            cumulative.add(recycled);
+        }
+
+        private synchronized Snapshot interval() {
+            harvest();
+            Snapshot snapshot = new Snapshot(interval);
+            interval.reset();
+            return snapshot;
+        }
+
+        private synchronized Snapshot cumulative(boolean reset) {
+            harvest();
+            Snapshot snapshot = new Snapshot(cumulative);
+            if (reset) {
+                cumulative.reset();
+            }
+            return snapshot;
+        }
+    }
+
+    private static final class Key {
+        private final String method;
+        private final String uriTemplate;
+
+        private Key(String method, String uriTemplate) {
+            this.method = method;
+            this.uriTemplate = uriTemplate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return method.equals(key.method) && uriTemplate.equals(key.uriTemplate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, uriTemplate);
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + uriTemplate;
+        }
+    }
+
+    /**
+     * Count and latencies in milliseconds.
+     */
+    @Getter
+    public static final class Snapshot {
+        private final long count;
+        private final double mean;
+        private final double max;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double p999;
+
+        private Snapshot(Histogram histogram) {
+            this.count = histogram.getTotalCount();
+            this.mean = count == 0 ? 0 : histogram.getMean() / 1000;
+            this.max = millis(histogram.getMaxValue());
+            this.p50 = millis(histogram.getValueAtPercentile(50));
+            this.p90 = millis(histogram.getValueAtPercentile(90));
+            this.p99 = millis(histogram.getValueAtPercentile(99));
+            this.p999 = millis(histogram.getValueAtPercentile(99.9));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("i18n.fallback")
+public class LocaleFallbacks {
+
+    /**
+     * Languages (as stored in the messages table) tried in order for a locale tag or language, e.g. pl-PL: pol,eng.
+     */
+    private Map<String, List<String>> chains = new HashMap<>();
+
+    /**
+     * Language tried after every chain when it is not already part of it.
+     */
+    @Nullable
+    private String defaultLang;
+
+    public void setChains(Map<String, List<String>> chains) {
+        this.chains = new HashMap<>();
+        chains.forEach((tag, langs) -> this.chains.put(tag.toLowerCase(Locale.ROOT), langs));
+    }
+
+    public List<String> chainFor(Locale locale) {
+        List<String> configured = chains.get(locale.toLanguageTag().toLowerCase(Locale.ROOT));
+        if (configured == null) {
+            configured = chains.get(locale.getLanguage());
+        }
+
+        List<String> chain = new ArrayList<>();
+        if (configured == null) {
+            chain.add(iso3Language(locale));
+        } else {
+            chain.addAll(configured);
+        }
+        if (defaultLang != null && !chain.contains(defaultLang)) {
+            chain.add(defaultLang);
+        }
+        return chain;
+    }
+
+    private static String iso3Language(Locale locale) {
+        try {
+            return locale.getISO3Language();
+        } catch (MissingResourceException e) {
+            return locale.getLanguage();
+        }
+    }
+}
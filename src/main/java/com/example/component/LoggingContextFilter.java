@@ -0,0 +1,189 @@
+package com.example.component;
+
+import com.example.jfr.HttpRequestEvent;
+import com.example.utils.DurationFormatter;
+import com.example.utils.RequestIds;
+import com.example.utils.RequestTrace;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Enumeration;
+
+import static javax.servlet.DispatcherType.*;
+
+/**
+ * Puts the request id in the MDC and the {@code X-Request-Id} response header, exposes the request to {@link RequestContextConverter} so that the session id and
+ * user name are resolved only by log events that print them, and records the request time: in the binary
+ * {@link AccessLog} when it is enabled, else as a log line, and per URI template in the {@link LatencyRecorder}.
+ * The URI template is never the raw path, so clients cannot add endpoints by requesting made-up ones.
+ * With the {@link SlowRequestRecorder} it also begins the {@link RequestTrace} of the request; the time until
+ * {@link RequestTraceFilter} runs is the {@value RequestTraceFilter#SECURITY_SPAN} span. Each request is also an
+ * {@link HttpRequestEvent} for a flight recording.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "logging.custom.context.enable")
+@Order(Ordered.HIGHEST_PRECEDENCE + 101)
+@Component
+@WebFilter(urlPatterns = {"/", "/*"}, asyncSupported = true, dispatcherTypes = {REQUEST, ASYNC, ERROR, FORWARD, INCLUDE})
+public class LoggingContextFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    static final String UNMATCHED = "{unmatched}";
+    private static final String[] UNMATCHED_BY_STATUS_CLASS = {UNMATCHED, "{unmatched 1xx}", "{unmatched 2xx}",
+            "{unmatched 3xx}", "{unmatched 4xx}", "{unmatched 5xx}"};
+
+    private final boolean logTime;
+    @Nullable
+    private final AccessLog accessLog;
+    @Nullable
+    private final LatencyRecorder latencyRecorder;
+    @Nullable
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    public LoggingContextFilter(boolean logTime) {
+        this(logTime, null, null, null);
+    }
+
+    @Autowired
+    public LoggingContextFilter(@Value("${logging.custom.time.enable:true}") boolean logTime,
+                                @Nullable AccessLog accessLog, @Nullable LatencyRecorder latencyRecorder,
+                                @Nullable SlowRequestRecorder slowRequestRecorder) {
+        this.logTime = logTime;
+        this.accessLog = accessLog;
+        this.latencyRecorder = latencyRecorder;
+        this.slowRequestRecorder = slowRequestRecorder;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        long start = System.nanoTime();
+        HttpServletRequest previous = RequestLoggingContext.set(request);
+        String requestId = RequestIds.resolve(request.getHeader(REQUEST_ID_HEADER), request.getHeader(TRACEPARENT_HEADER));
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put("rid", requestId);
+        RequestTrace trace = null;
+        if (slowRequestRecorder != null) {
+            trace = RequestTrace.begin(request.getMethod(), request.getRequestURI(), start);
+            trace.enter(RequestTraceFilter.SECURITY_SPAN);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long nanos = System.nanoTime() - start;
+            event.end();
+            String uriTemplate = getUriTemplate(request, response);
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.uriTemplate = uriTemplate;
+                event.status = response.getStatus();
+                event.requestId = requestId;
+                event.commit();
+            }
+            if (trace != null) {
+                trace.end(start + nanos);
+                slowRequestRecorder.record(trace, nanos, requestId, response.getStatus());
+            }
+            if (latencyRecorder != null) {
+                latencyRecorder.record(request.getMethod(), uriTemplate, nanos);
+            }
+            if (accessLog != null) {
+                accessLog.record(start, nanos, request.getMethod(), response.getStatus(), uriTemplate,
+                        request.getContentLengthLong(), getContentLength(response));
+            } else if (logTime && log.isInfoEnabled()) {
+                logTime(request, nanos);
+            }
+            MDC.remove("rid");
+            RequestLoggingContext.set(previous);
+        }
+    }
+
+    /**
+     * The MVC handler pattern, else the id of the JSF view that served the request, else {@value #UNMATCHED} with the
+     * status class, e.g. for requests the security filters redirected or answered and for unknown paths.
+     */
+    static String getUriTemplate(HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern instanceof String) {
+            return (String) pattern;
+        }
+        int status = response.getStatus();
+        Object viewId = request.getAttribute(ViewIdPhaseListener.VIEW_ID_ATTRIBUTE);
+        if (viewId instanceof String && status != HttpServletResponse.SC_NOT_FOUND) {
+            return (String) viewId;
+        }
+        int statusClass = status / 100;
+        return statusClass < UNMATCHED_BY_STATUS_CLASS.length ? UNMATCHED_BY_STATUS_CLASS[statusClass] : UNMATCHED;
+    }
+
+    private static long getContentLength(HttpServletResponse response) {
+        String contentLength = response.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void logTime(HttpServletRequest request, long nanos) {
+        String duration = DurationFormatter.format(nanos);
+        if (log.isDebugEnabled()) {
+            log.debug("request: url: {}, time: {} ({}), params: {}, headers: {}", request.getRequestURL(), duration,
+                    nanos, createMessage(request), getHeadersAsString(request));
+        } else {
+            log.info("request: url: {}, time: {} ({}), params: {}", request.getRequestURL(), duration,
+                    nanos, createMessage(request));
+        }
+    }
+
+    private static String getHeadersAsString(HttpServletRequest request) {
+        StringBuilder headers = new StringBuilder();
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            Enumeration<String> values = request.getHeaders(name);
+            while (values.hasMoreElements()) {
+                if (headers.length() > 0) {
+                    headers.append('\n');
+                }
+                headers.append(name).append("= ").append(values.nextElement());
+            }
+        }
+        return headers.toString();
+    }
+
+    private static String createMessage(HttpServletRequest request) {
+        StringBuilder msg = new StringBuilder();
+        msg.append("uri=").append(request.getRequestURI());
+
+        String queryString = request.getQueryString();
+        if (queryString != null) {
+            msg.append('?').append(queryString);
+        }
+
+        msg.append(";client=").append(request.getRemoteAddr());
+        return msg.toString();
+    }
+}
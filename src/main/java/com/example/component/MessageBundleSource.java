@@ -0,0 +1,21 @@
+package com.example.component;
+
+import org.springframework.context.MessageSource;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+public interface MessageBundleSource extends MessageSource {
+
+    /**
+     * Resolves all given codes without arguments at once; codes that are not found are left out.
+     */
+    Map<String, String> getMessages(Collection<String> codes, Locale locale);
+
+    /**
+     * Returns an immutable snapshot of every message of the locale, shared until the messages change.
+     */
+    Map<String, String> getAllMessages(Locale locale);
+
+}
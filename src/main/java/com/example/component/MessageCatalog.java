@@ -0,0 +1,87 @@
+package com.example.component;
+
+import com.example.entity.Message;
+import com.example.repository.MessagesRepository;
+import com.example.utils.MessageTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "i18n.catalog.enable")
+public class MessageCatalog {
+
+    private final MessagesRepository messagesRepository;
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), 0);
+
+    @Autowired
+    public MessageCatalog(MessagesRepository messagesRepository) {
+        this.messagesRepository = messagesRepository;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${i18n.catalog.refresh-millis:60000}", fixedDelayString = "${i18n.catalog.refresh-millis:60000}")
+    public synchronized void refresh() {
+        Map<String, Map<String, MessageTemplate>> texts = groupByLang(messagesRepository.findAll());
+        Snapshot current = snapshot;
+        if (texts.equals(current.texts)) {
+            log.debug("message catalog unchanged, version {}", current.version);
+            return;
+        }
+
+        snapshot = new Snapshot(texts, current.version + 1);
+        log.info("message catalog loaded, languages: {}, version {}", texts.keySet(), current.version + 1);
+    }
+
+    @Nullable
+    public String getText(String key, String lang) {
+        MessageTemplate template = getTemplate(key, lang);
+        return template == null ? null : template.getText();
+    }
+
+    @Nullable
+    public MessageTemplate getTemplate(String key, String lang) {
+        Map<String, MessageTemplate> texts = snapshot.texts.get(lang);
+        return texts == null ? null : texts.get(key);
+    }
+
+    public Map<String, MessageTemplate> getTemplates(String lang) {
+        return snapshot.texts.getOrDefault(lang, Collections.emptyMap());
+    }
+
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    private static Map<String, Map<String, MessageTemplate>> groupByLang(List<Message> messages) {
+        Map<String, Map<String, MessageTemplate>> byLang = new HashMap<>();
+        for (Message message : messages) {
+            byLang.computeIfAbsent(message.getLang(), lang -> new HashMap<>())
+                    .put(message.getKey(), MessageTemplate.compile(message.getText()));
+        }
+
+        Map<String, Map<String, MessageTemplate>> immutable = new HashMap<>();
+        byLang.forEach((lang, texts) -> immutable.put(lang, Map.copyOf(texts)));
+        return Map.copyOf(immutable);
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Map<String, MessageTemplate>> texts;
+        private final long version;
+
+        private Snapshot(Map<String, Map<String, MessageTemplate>> texts, long version) {
+            this.texts = texts;
+            this.version = version;
+        }
+    }
+}
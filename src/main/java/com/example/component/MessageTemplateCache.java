@@ -0,0 +1,58 @@
+package com.example.component;
+
+import com.example.utils.MessageTemplate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MessageTemplateCache implements MeterBinder {
+
+    private static final long DEFAULT_MAX_SIZE = 10_000;
+
+    private final Cache<String, MessageTemplate> templates;
+
+    public MessageTemplateCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    @Autowired
+    public MessageTemplateCache(@Value("${i18n.templates.max-size:10000}") long maxSize) {
+        this.templates = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    public MessageTemplate get(String text) {
+        return templates.get(text, MessageTemplate::compile);
+    }
+
+    public long size() {
+        return templates.estimatedSize();
+    }
+
+    public double hitRatio() {
+        return templates.stats().hitRate();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("i18n.templates.size", this, MessageTemplateCache::size)
+                .description("number of compiled message templates")
+                .register(registry);
+        Gauge.builder("i18n.templates.hit.ratio", this, MessageTemplateCache::hitRatio)
+                .description("ratio of template lookups served without compiling")
+                .register(registry);
+        FunctionCounter.builder("i18n.templates.compiled", templates, c -> c.stats().missCount())
+                .description("number of message texts compiled into templates")
+                .register(registry);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.component;
+
+import com.example.utils.BoundedKeys;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.jsf.FacesContextUtils;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per view the duration of each JSF lifecycle phase ({@code jsf.phase}), the number of components in the
+ * rendered tree ({@code jsf.view.components}) and, for a sample of the requests, the size the view state just
+ * saved by the state manager takes in the session row ({@code jsf.view.state}). Registered in faces-config.xml, so
+ * the registry and settings are looked up in the Spring context on the first event; views beyond {@link #MAX_VIEWS}
+ * share the tag {@value BoundedKeys#OTHER}.
+ */
+@Slf4j
+public class PhaseMetricsListener implements PhaseListener {
+
+    static final int MAX_VIEWS = 256;
+    static final String LOGICAL_VIEW_MAP = "com.sun.faces.renderkit.ServerSideStateHelper.LogicalViewMap";
+    static final String VIEW_STATE_VALUE = "com.sun.faces.ViewStateValue";
+    private static final TypeDescriptor OBJECT = TypeDescriptor.valueOf(Object.class);
+    private static final TypeDescriptor BYTES = TypeDescriptor.valueOf(byte[].class);
+    private static final long serialVersionUID = 1L;
+    private static final ThreadLocal<long[]> PHASE_STARTS = ThreadLocal.withInitial(() -> new long[PhaseId.VALUES.size()]);
+
+    @Nullable
+    private transient volatile Settings settings;
+
+    public PhaseMetricsListener() {
+    }
+
+    public PhaseMetricsListener(MeterRegistry registry, boolean enabled, double viewStateSampleRate,
+                                @Nullable ConversionService sessionConversionService) {
+        this.settings = new Settings(registry, enabled, viewStateSampleRate, sessionConversionService);
+    }
+
+    @Override
+    public void beforePhase(PhaseEvent event) {
+        if (settings(event.getFacesContext()).enabled) {
+            PHASE_STARTS.get()[event.getPhaseId().getOrdinal()] = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterPhase(PhaseEvent event) {
+        FacesContext context = event.getFacesContext();
+        Settings current = settings(context);
+        if (!current.enabled) {
+            return;
+        }
+        int phase = event.getPhaseId().getOrdinal();
+        long nanos = System.nanoTime() - PHASE_STARTS.get()[phase];
+        UIViewRoot viewRoot = context.getViewRoot();
+        ViewMeters meters = current.views.get(viewRoot == null ? BoundedKeys.OTHER : viewRoot.getViewId());
+        meters.phases[phase].record(nanos, TimeUnit.NANOSECONDS);
+
+        if (event.getPhaseId() == PhaseId.RENDER_RESPONSE && viewRoot != null) {
+            meters.components.record(countComponents(viewRoot));
+            if (current.viewStateSampleRate > 0 && current.sessionConversionService != null
+                    && ThreadLocalRandom.current().nextDouble() < current.viewStateSampleRate) {
+                long size = viewStateSize(context, current.sessionConversionService);
+                if (size >= 0) {
+                    meters.viewState.record(size);
+                }
+            }
+        }
+    }
+
+    @Override
+    public PhaseId getPhaseId() {
+        return PhaseId.ANY_PHASE;
+    }
+
+    private Settings settings(FacesContext context) {
+        Settings current = settings;
+        if (current == null) {
+            current = lookupSettings(context);
+            settings = current;
+        }
+        return current;
+    }
+
+    private static Settings lookupSettings(FacesContext context) {
+        WebApplicationContext applicationContext = FacesContextUtils.getWebApplicationContext(context);
+        if (applicationContext == null) {
+            return new Settings(Metrics.globalRegistry, true, 0, null);
+        }
+        Environment environment = applicationContext.getEnvironment();
+        return new Settings(applicationContext.getBeanProvider(MeterRegistry.class).getIfAvailable(() -> Metrics.globalRegistry),
+                environment.getProperty("logging.custom.phase-metrics.enable", Boolean.class, true),
+                environment.getProperty("logging.custom.phase-metrics.view-state-sample-rate", Double.class, 0.0),
+                applicationContext.containsBean("springSessionConversionService")
+                        ? applicationContext.getBean("springSessionConversionService", ConversionService.class) : null);
+    }
+
+    static int countComponents(UIComponent component) {
+        int count = 1;
+        Iterator<UIComponent> kids = component.getFacetsAndChildren();
+        while (kids.hasNext()) {
+            count += countComponents(kids.next());
+        }
+        return count;
+    }
+
+    /**
+     * Size of the state entry the state manager put in the session's logical view map for the view state id it wrote
+     * to the page, converted as the session repository stores it; the view is not saved again. -1 when the state was
+     * not kept in the session, e.g. with client state saving or a transient view, or cannot be converted.
+     */
+    private static long viewStateSize(FacesContext context, ConversionService sessionConversionService) {
+        Object viewStateValue = context.getAttributes().get(VIEW_STATE_VALUE);
+        Map<String, Object> sessionMap = context.getExternalContext().getSessionMap();
+        Object logicalViews = sessionMap.get(LOGICAL_VIEW_MAP);
+        if (!(viewStateValue instanceof String) || !(logicalViews instanceof Map)) {
+            return -1;
+        }
+        String[] ids = ((String) viewStateValue).split(":", 2);
+        Object actualViews = ids.length == 2 ? ((Map<?, ?>) logicalViews).get(ids[0]) : null;
+        Object state = actualViews instanceof Map ? ((Map<?, ?>) actualViews).get(ids[1]) : null;
+        if (state == null) {
+            return -1;
+        }
+        try {
+            byte[] stored = (byte[]) sessionConversionService.convert(state, OBJECT, BYTES);
+            return stored == null ? -1 : stored.length;
+        } catch (RuntimeException e) {
+            log.debug("cannot measure view state {}", viewStateValue, e);
+            return -1;
+        }
+    }
+
+    private static final class Settings {
+        private final MeterRegistry registry;
+        private final boolean enabled;
+        private final double viewStateSampleRate;
+        @Nullable
+        private final ConversionService sessionConversionService;
+        private final BoundedKeys<String, ViewMeters> views;
+
+        private Settings(MeterRegistry registry, boolean enabled, double viewStateSampleRate,
+                         @Nullable ConversionService sessionConversionService) {
+            this.registry = registry;
+            this.enabled = enabled;
+            this.viewStateSampleRate = viewStateSampleRate;
+            this.sessionConversionService = sessionConversionService;
+            this.views = new BoundedKeys<>(MAX_VIEWS, view -> BoundedKeys.OTHER, view -> new ViewMeters(registry, view));
+        }
+    }
+
+    private static final class ViewMeters {
+        private final Timer[] phases = new Timer[PhaseId.VALUES.size()];
+        private final DistributionSummary components;
+        private final DistributionSummary viewState;
+
+        private ViewMeters(MeterRegistry registry, String viewId) {
+            for (PhaseId phaseId : PhaseId.VALUES) {
+                if (phaseId == PhaseId.ANY_PHASE) {
+                    continue;
+                }
+                phases[phaseId.getOrdinal()] = Timer.builder("jsf.phase")
+                        .description("duration of a JSF lifecycle phase")
+                        .tags("view", viewId, "phase", phaseId.getName())
+                        .publishPercentileHistogram()
+                        .register(registry);
+            }
+            components = DistributionSummary.builder("jsf.view.components")
+                    .description("components in the rendered view tree")
+                    .tags("view", viewId)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            viewState = DistributionSummary.builder("jsf.view.state")
+                    .description("stored size of the view state in the session, sampled")
+                    .baseUnit("bytes")
+                    .tags("view", viewId)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.component;
+
+import com.example.utils.RequestQueryStats;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Installs a Hibernate statistics implementation that, besides the global statistics enabled by
+ * {@code hibernate.generate_statistics}, counts into the {@link RequestQueryStats} of the current request.
+ */
+@Component
+@ConditionalOnProperty(name = "logging.custom.query-stats.enable")
+public class QueryStatisticsCustomizer implements HibernatePropertiesCustomizer {
+
+    static final String STATISTICS_FACTORY = "hibernate.stats.factory";
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(STATISTICS_FACTORY, (StatisticsFactory) RequestStatistics::new);
+    }
+
+    static final class RequestStatistics extends StatisticsImpl {
+
+        RequestStatistics(SessionFactoryImplementor sessionFactory) {
+            super(sessionFactory);
+        }
+
+        @Override
+        public void prepareStatement() {
+            super.prepareStatement();
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.statementPrepared();
+            }
+        }
+
+        @Override
+        public void queryExecuted(String hql, int rows, long time) {
+            super.queryExecuted(hql, rows, time);
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.queryExecuted(hql, rows, time);
+            }
+        }
+
+        @Override
+        public void loadEntity(String entityName) {
+            super.loadEntity(entityName);
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.entityLoaded();
+            }
+        }
+
+        @Override
+        public void fetchEntity(String entityName) {
+            super.fetchEntity(entityName);
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.entityFetched(entityName);
+            }
+        }
+
+        @Override
+        public void loadCollection(String role) {
+            super.loadCollection(role);
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.collectionLoaded();
+            }
+        }
+
+        @Override
+        public void fetchCollection(String role) {
+            super.fetchCollection(role);
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.collectionFetched(role);
+            }
+        }
+    }
+}
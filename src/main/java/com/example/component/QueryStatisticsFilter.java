@@ -0,0 +1,149 @@
+package com.example.component;
+
+import com.example.utils.BoundedKeys;
+import com.example.utils.RequestQueryStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the Hibernate work of each request through {@link RequestQueryStats} and exports it per HTTP method and
+ * URI template: statements, HQL queries, rows, entity and collection loads, the duration of the slowest HQL and the
+ * requests repeating a query shape more than {@code repeat-threshold} times. The query strings themselves are
+ * unbounded, so they are never tags: the slowest query and the repeated shapes are only logged as a likely N+1 and
+ * left with the counts of the request in the {@value #STATS_ATTRIBUTE} request attribute, so tests can assert a
+ * query budget per endpoint.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "logging.custom.query-stats.enable")
+@Order(Ordered.HIGHEST_PRECEDENCE + 102)
+@Component
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String STATS_ATTRIBUTE = QueryStatisticsFilter.class.getName() + ".STATS";
+    static final int MAX_ENDPOINTS = 512;
+
+    private final int repeatThreshold;
+    private final BoundedKeys<Key, EndpointMeters> endpoints;
+
+    @Autowired
+    public QueryStatisticsFilter(MeterRegistry registry,
+                                 @Value("${logging.custom.query-stats.repeat-threshold:5}") int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+        this.endpoints = new BoundedKeys<>(MAX_ENDPOINTS, key -> new Key(key.method, BoundedKeys.OTHER),
+                key -> new EndpointMeters(registry, key));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.Snapshot snapshot = stats.end(repeatThreshold);
+            request.setAttribute(STATS_ATTRIBUTE, snapshot);
+            record(request.getMethod(), LoggingContextFilter.getUriTemplate(request, response), snapshot);
+        }
+    }
+
+    private void record(String method, String uriTemplate, RequestQueryStats.Snapshot snapshot) {
+        EndpointMeters meters = endpoints.get(new Key(method, uriTemplate));
+        meters.statements.record(snapshot.getStatements());
+        if (snapshot.getStatements() == 0) {
+            return;
+        }
+        meters.queries.record(snapshot.getQueries());
+        meters.rows.record(snapshot.getRows());
+        meters.entityLoads.record(snapshot.getEntityLoads() + snapshot.getCollectionLoads());
+        if (snapshot.getSlowestQuery() != null) {
+            meters.slowestQuery.record(snapshot.getSlowestQueryMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (!snapshot.getRepeatedShapes().isEmpty()) {
+            meters.repeatedQueries.increment();
+            log.warn("possible N+1: {} {} repeated {}, statements: {}, slowest: {} ({} ms)", method, uriTemplate,
+                    snapshot.getRepeatedShapes(), snapshot.getStatements(), snapshot.getSlowestQuery(),
+                    snapshot.getSlowestQueryMillis());
+        }
+    }
+
+    private static final class EndpointMeters {
+        private final Tags tags;
+        private final DistributionSummary statements;
+        private final DistributionSummary queries;
+        private final DistributionSummary rows;
+        private final DistributionSummary entityLoads;
+        private final Timer slowestQuery;
+        private final Counter repeatedQueries;
+
+        private EndpointMeters(MeterRegistry registry, Key key) {
+            this.tags = Tags.of("method", key.method, "uri", key.uriTemplate);
+            this.statements = summary(registry, "hibernate.request.statements", "JDBC statements prepared per request");
+            this.queries = summary(registry, "hibernate.request.queries", "HQL queries executed per request");
+            this.rows = summary(registry, "hibernate.request.rows", "rows returned by the HQL queries of a request");
+            this.entityLoads = summary(registry, "hibernate.request.loads",
+                    "entities and collections hydrated per request");
+            this.slowestQuery = Timer.builder("hibernate.request.slowest.query")
+                    .description("slowest HQL query of a request")
+                    .tags(tags)
+                    .register(registry);
+            this.repeatedQueries = Counter.builder("hibernate.request.repeated.queries")
+                    .description("requests running the same query shape more than the repeat threshold")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        private DistributionSummary summary(MeterRegistry registry, String name, String description) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    private static final class Key {
+        private final String method;
+        private final String uriTemplate;
+
+        private Key(String method, String uriTemplate) {
+            this.method = method;
+            this.uriTemplate = uriTemplate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return method.equals(key.method) && uriTemplate.equals(key.uriTemplate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, uriTemplate);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.component;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * {@code %ctx{sid}} and {@code %ctx{user}}: session id and user name of the request served by the logging thread,
+ * resolved through {@link RequestLoggingContext} only when the event is formatted. Works with synchronous
+ * appenders; outside a request it prints an empty string.
+ */
+public class RequestContextConverter extends ClassicConverter {
+
+    private boolean user;
+
+    @Override
+    public void start() {
+        String option = getFirstOption();
+        if (option == null || !("sid".equals(option) || "user".equals(option))) {
+            addError("expected %ctx{sid} or %ctx{user}, got: " + option);
+            return;
+        }
+        user = "user".equals(option);
+        super.start();
+    }
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        if (!isStarted() || !RequestLoggingContext.isActive()) {
+            return "";
+        }
+        if (user) {
+            String userName = RequestLoggingContext.getUserName();
+            return userName == null ? RequestLoggingContext.NO_USER : userName;
+        }
+        String sessionId = RequestLoggingContext.getSessionId();
+        return sessionId == null ? "{no session}" : sessionId;
+    }
+}
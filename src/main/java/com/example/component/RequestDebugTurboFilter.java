@@ -0,0 +1,56 @@
+package com.example.component;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enables DEBUG for the loggers selected by {@link DebugLogRules} on the thread serving a selected request, whatever
+ * their configured level. Any other level, or no request being debugged, is decided by one comparison and one
+ * volatile read. Work handed to other threads is not covered.
+ */
+public class RequestDebugTurboFilter extends TurboFilter {
+
+    private static final ThreadLocal<String[]> LOGGERS = new ThreadLocal<>();
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+    /**
+     * Enables DEBUG on the current thread for loggers whose name starts with one of the prefixes.
+     */
+    public static void begin(String[] loggerPrefixes) {
+        if (LOGGERS.get() == null) {
+            ACTIVE.incrementAndGet();
+        }
+        LOGGERS.set(loggerPrefixes);
+    }
+
+    public static void end() {
+        if (LOGGERS.get() != null) {
+            LOGGERS.remove();
+            ACTIVE.decrementAndGet();
+        }
+    }
+
+    @Override
+    public FilterReply decide(@Nullable Marker marker, Logger logger, @Nullable Level level, @Nullable String format,
+                              @Nullable Object[] params, @Nullable Throwable t) {
+        if (level == null || level.levelInt != Level.DEBUG_INT || ACTIVE.get() == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        String[] prefixes = LOGGERS.get();
+        if (prefixes != null) {
+            String name = logger.getName();
+            for (String prefix : prefixes) {
+                if (name.startsWith(prefix)) {
+                    return FilterReply.ACCEPT;
+                }
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.component;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+/**
+ * Request served by the current thread. The session id and user name are resolved only when a log event prints
+ * them, and never create a session.
+ */
+public final class RequestLoggingContext {
+
+    /**
+     * User name printed for requests without an authenticated user.
+     */
+    public static final String NO_USER = "{no user}";
+    private static final ThreadLocal<HttpServletRequest> CURRENT = new ThreadLocal<>();
+
+    private RequestLoggingContext() {
+    }
+
+    @Nullable
+    static HttpServletRequest set(@Nullable HttpServletRequest request) {
+        HttpServletRequest previous = CURRENT.get();
+        if (request == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(request);
+        }
+        return previous;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    @Nullable
+    public static String getSessionId() {
+        HttpSession session = getSession();
+        return session == null ? null : session.getId();
+    }
+
+    /**
+     * Name of the authenticated user, taken from the security context while the security filters run and from the
+     * security context stored in the session after they have cleared it.
+     */
+    @Nullable
+    public static String getUserName() {
+        HttpServletRequest request = CURRENT.get();
+        return request == null ? null : getUserName(request);
+    }
+
+    /**
+     * {@link #getUserName()} of the given request, also before the security filters have run.
+     */
+    @Nullable
+    static String getUserName(HttpServletRequest request) {
+        String userName = getName(SecurityContextHolder.getContext());
+        if (userName == null) {
+            HttpSession session = getSession(request);
+            Object stored = session == null
+                    ? null : session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+            if (stored instanceof SecurityContext) {
+                userName = getName((SecurityContext) stored);
+            }
+        }
+        return userName;
+    }
+
+    @Nullable
+    private static HttpSession getSession() {
+        HttpServletRequest request = CURRENT.get();
+        return request == null ? null : getSession(request);
+    }
+
+    @Nullable
+    private static HttpSession getSession(HttpServletRequest request) {
+        try {
+            return request.getSession(false);
+        } catch (IllegalStateException e) {
+            // response committed and session invalidated
+            return null;
+        }
+    }
+
+    @Nullable
+    private static String getName(SecurityContext context) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
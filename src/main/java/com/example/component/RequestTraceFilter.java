@@ -0,0 +1,44 @@
+package com.example.component;
+
+import com.example.utils.RequestTrace;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Runs right after the security filter chain: closes the {@value #SECURITY_SPAN} span begun by
+ * {@link LoggingContextFilter} and times the rest of the request as the {@value #SERVLET_SPAN} span.
+ */
+@ConditionalOnProperty(name = "logging.custom.flight-recorder.enable")
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@Component
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    public static final String SECURITY_SPAN = "security";
+    public static final String SERVLET_SPAN = "servlet";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        trace.exit(SECURITY_SPAN);
+        int span = trace.enter(SERVLET_SPAN);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            trace.exit(span);
+        }
+    }
+}
@@ -3,32 +3,106 @@ package com.example.component;
 import com.example.view.LocaleModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.AbstractMap;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Labels of the current request. The first lookup resolves, in one batch, every key the view used on earlier
+ * renders; the results are kept for the rest of the request.
+ */
 @Component("msg")
+@RequestScope
 public class ResourceBundleBean extends AbstractMap<String, String> {
 
     private final MessageSource messageSource;
     private final LocaleModel localeModel;
+    private final ViewMessageKeys viewMessageKeys;
+    @Nullable
+    private final HttpServletRequest request;
+    @Nullable
+    private Locale locale;
+    @Nullable
+    private Map<String, String> messages;
 
-    @Autowired
     public ResourceBundleBean(LocaleModel localeModel, MessageSource messageSource) {
+        this(localeModel, messageSource, new ViewMessageKeys(), null);
+    }
+
+    @Autowired
+    public ResourceBundleBean(LocaleModel localeModel, MessageSource messageSource, ViewMessageKeys viewMessageKeys,
+                              @Nullable HttpServletRequest request) {
         this.localeModel = localeModel;
         this.messageSource = messageSource;
+        this.viewMessageKeys = viewMessageKeys;
+        this.request = request;
     }
 
     @Override
     public String get(Object key) {
-        return messageSource.getMessage(key.toString(), null, localeModel.getLocale());
+        String code = key.toString();
+        Map<String, String> resolved = getResolvedMessages();
+        String message = resolved.get(code);
+        if (message == null) {
+            message = messageSource.getMessage(code, null, getLocale());
+            resolved.put(code, message);
+            viewMessageKeys.add(getViewId(), code);
+        }
+        return message;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getAllMessages().containsKey(key);
     }
 
     @Override
     public Set<Entry<String, String>> entrySet() {
-        return Collections.emptySet();
+        return getAllMessages().entrySet();
+    }
+
+    private Map<String, String> getAllMessages() {
+        if (messageSource instanceof MessageBundleSource) {
+            return ((MessageBundleSource) messageSource).getAllMessages(getLocale());
+        }
+        return Collections.emptyMap();
+    }
+
+    private Map<String, String> getResolvedMessages() {
+        Map<String, String> resolved = messages;
+        if (resolved == null) {
+            resolved = new HashMap<>();
+            Set<String> keys = viewMessageKeys.get(getViewId());
+            if (!keys.isEmpty() && messageSource instanceof MessageBundleSource) {
+                resolved.putAll(((MessageBundleSource) messageSource).getMessages(keys, getLocale()));
+                for (String code : keys) {
+                    resolved.putIfAbsent(code, code);
+                }
+            }
+            messages = resolved;
+        }
+        return resolved;
+    }
+
+    private Locale getLocale() {
+        Locale current = locale;
+        if (current == null) {
+            current = localeModel.getLocale();
+            locale = current;
+        }
+        return current;
+    }
+
+    private String getViewId() {
+        return request == null ? "" : request.getServletPath();
     }
 
     @Override
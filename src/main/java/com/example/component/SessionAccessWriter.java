@@ -0,0 +1,190 @@
+package com.example.component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stores the last access of sessions for the {@link DeltaSessionRepository} instead of their own row update on every
+ * request. A last access is only stored when the stored one is at least {@code granularity} older, so a session may
+ * expire up to that much earlier; due ones are kept per session, the latest winning, and written by
+ * {@link #flush()} with one multi-row update of at most {@code batch-size} sessions per statement, which never moves a
+ * stored last access back. The flush runs every {@code flush-millis} and when the context is closed, before the data
+ * source it depends on.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "session.access-writes.enable")
+public class SessionAccessWriter implements MeterBinder {
+
+    private static final String ROW = "(?, CAST(? AS BIGINT), CAST(? AS BIGINT))";
+
+    private final JdbcOperations jdbcOperations;
+    private final String tableName;
+    private final long granularityMillis;
+    private final int batchSize;
+    private final String batchQuery;
+    private final ConcurrentMap<String, Access> pending = new ConcurrentHashMap<>();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+
+    @Autowired
+    public SessionAccessWriter(JdbcOperations jdbcOperations,
+                               @Value("${spring.session.jdbc.table-name:SPRING_SESSION}") String tableName,
+                               @Value("${session.access-writes.granularity:1m}") Duration granularity,
+                               @Value("${session.access-writes.batch-size:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("session.access-writes.batch-size must be positive: " + batchSize);
+        }
+        this.jdbcOperations = jdbcOperations;
+        this.tableName = tableName;
+        this.granularityMillis = granularity.toMillis();
+        this.batchSize = batchSize;
+        this.batchQuery = query(batchSize);
+    }
+
+    /**
+     * Queues the last access of a session unless the stored one is recent enough.
+     *
+     * @return whether the last access will be stored
+     */
+    public boolean touch(String sessionId, Instant stored, Instant lastAccessedTime, Duration maxInactiveInterval) {
+        if (lastAccessedTime.toEpochMilli() - stored.toEpochMilli() < granularityMillis) {
+            skipped.increment();
+            return false;
+        }
+        long expiryTime = maxInactiveInterval.isNegative()
+                ? Long.MAX_VALUE : lastAccessedTime.plus(maxInactiveInterval).toEpochMilli();
+        Access access = new Access(lastAccessedTime.toEpochMilli(), expiryTime);
+        pending.compute(sessionId, (id, previous) -> {
+            if (previous == null) {
+                return access;
+            }
+            coalesced.increment();
+            return previous.lastAccessTime >= access.lastAccessTime ? previous : access;
+        });
+        return true;
+    }
+
+    /**
+     * Writes every queued last access; one that fails to be written is dropped.
+     */
+    @PreDestroy
+    @Scheduled(initialDelayString = "${session.access-writes.flush-millis:5000}",
+            fixedDelayString = "${session.access-writes.flush-millis:5000}")
+    public synchronized void flush() {
+        List<Object> arguments = new ArrayList<>();
+        for (String sessionId : pending.keySet()) {
+            Access access = pending.remove(sessionId);
+            if (access == null) {
+                continue;
+            }
+            arguments.add(sessionId);
+            arguments.add(access.lastAccessTime);
+            arguments.add(access.expiryTime);
+            if (arguments.size() == batchSize * 3) {
+                write(arguments);
+                arguments.clear();
+            }
+        }
+        if (!arguments.isEmpty()) {
+            write(arguments);
+        }
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("session.access-writes.pending", this, SessionAccessWriter::getPending)
+                .description("number of sessions whose last access waits for the next flush")
+                .register(registry);
+        bindRows(registry, "written", written, "session last accesses written by a flush");
+        bindRows(registry, "skipped", skipped, "session last accesses not written because the stored one is recent enough");
+        bindRows(registry, "coalesced", coalesced, "session last accesses replaced by a later one before a flush");
+        bindRows(registry, "failed", failed, "session last accesses dropped because their flush failed");
+        FunctionCounter.builder("session.access-writes.statements", statements, LongAdder::sum)
+                .description("update statements run by flushes")
+                .register(registry);
+    }
+
+    private static void bindRows(MeterRegistry registry, String result, LongAdder counter, String description) {
+        FunctionCounter.builder("session.access-writes.rows", counter, LongAdder::sum)
+                .description(description)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void write(List<Object> arguments) {
+        int rows = arguments.size() / 3;
+        try {
+            jdbcOperations.update(rows == batchSize ? batchQuery : query(rows), arguments.toArray());
+            statements.increment();
+            written.add(rows);
+        } catch (DataAccessException e) {
+            failed.add(rows);
+            log.warn("could not store the last access of {} sessions", rows, e);
+        }
+    }
+
+    private String query(int rows) {
+        StringBuilder query = new StringBuilder(128 + rows * (ROW.length() + 2))
+                .append("UPDATE ").append(tableName).append(" S SET LAST_ACCESS_TIME = V.LAST_ACCESS_TIME, ")
+                .append("EXPIRY_TIME = V.EXPIRY_TIME FROM (VALUES ");
+        for (int i = 0; i < rows; i++) {
+            query.append(i == 0 ? "" : ", ").append(ROW);
+        }
+        return query.append(") AS V (SESSION_ID, LAST_ACCESS_TIME, EXPIRY_TIME) ")
+                .append("WHERE S.SESSION_ID = V.SESSION_ID AND S.LAST_ACCESS_TIME < V.LAST_ACCESS_TIME")
+                .toString();
+    }
+
+    private static final class Access {
+        private final long lastAccessTime;
+        private final long expiryTime;
+
+        private Access(long lastAccessTime, long expiryTime) {
+            this.lastAccessTime = lastAccessTime;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
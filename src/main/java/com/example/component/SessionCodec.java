@@ -0,0 +1,144 @@
+package com.example.component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.nustaq.serialization.FSTConfiguration;
+import org.nustaq.serialization.FSTObjectInput;
+import org.nustaq.serialization.FSTObjectOutput;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FST format of session attributes. An attribute is written as {@value #MAGIC}, the registration version and the
+ * FST stream of a configuration with the classes of that version pre-registered, so the usual session contents are
+ * written with short class ids instead of class names. Attributes without the header, written before the header was
+ * introduced, are read with the default FST configuration; every FST tag is zero or negative, so a positive first
+ * byte is never legacy data.
+ *
+ * <p>Classes are referred to by their position in the registration of a version: a class is only ever appended, as
+ * a new version, and the registrations of earlier versions are kept to read the sessions they wrote. A new field of
+ * a serialized class needs FST's {@code @Version}. An attribute that cannot be read any more, such as one written
+ * by an unknown version or of a class changed incompatibly, is logged, counted and read as {@code null}, which drops
+ * that attribute instead of failing every request of the session.
+ */
+@Slf4j
+@Component
+public class SessionCodec implements MeterBinder {
+
+    static final byte MAGIC = 'F';
+    static final int HEADER_LENGTH = 2;
+
+    /**
+     * Registrations per version, index 0 is version 1; append a new version instead of editing one.
+     */
+    private static final String[][] REGISTRATIONS = {
+            {
+                    "java.util.ArrayList",
+                    "java.util.HashMap",
+                    "java.util.HashSet",
+                    "java.util.LinkedHashMap",
+                    "java.util.Locale",
+                    "java.util.Collections$UnmodifiableRandomAccessList",
+                    "java.util.Collections$UnmodifiableSet",
+                    "[Ljava.lang.Object;",
+                    "org.springframework.security.core.context.SecurityContextImpl",
+                    "org.springframework.security.authentication.UsernamePasswordAuthenticationToken",
+                    "org.springframework.security.web.authentication.WebAuthenticationDetails",
+                    "org.springframework.security.core.authority.SimpleGrantedAuthority",
+                    "org.springframework.security.web.csrf.DefaultCsrfToken",
+                    "org.springframework.security.web.savedrequest.DefaultSavedRequest",
+                    "org.springframework.security.web.savedrequest.SavedCookie",
+                    "org.hibernate.collection.internal.PersistentBag",
+                    "com.sun.faces.util.LRUMap",
+                    "com.example.entity.User",
+                    "com.example.entity.Role",
+                    "com.example.entity.Message",
+                    "com.example.view.TableView",
+                    "com.example.view.TableView$MessageLazyDataModel",
+            },
+    };
+    static final int VERSION = REGISTRATIONS.length;
+
+    private final FSTConfiguration legacy = FSTConfiguration.createDefaultConfiguration();
+    private final FSTConfiguration[] versions = new FSTConfiguration[REGISTRATIONS.length];
+    private final LongAdder unreadable = new LongAdder();
+
+    public SessionCodec() {
+        ClassLoader classLoader = SessionCodec.class.getClassLoader();
+        legacy.setClassLoader(classLoader);
+        for (int i = 0; i < REGISTRATIONS.length; i++) {
+            FSTConfiguration configuration = FSTConfiguration.createDefaultConfiguration();
+            configuration.setClassLoader(classLoader);
+            for (String className : REGISTRATIONS[i]) {
+                try {
+                    configuration.registerClass(Class.forName(className, false, classLoader));
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("session class of version " + (i + 1) + " is missing, "
+                            + "add a version without it: " + className, e);
+                }
+            }
+            versions[i] = configuration;
+        }
+    }
+
+    public byte[] encode(Object attribute) {
+        FSTObjectOutput out = versions[VERSION - 1].getObjectOutput();
+        try {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeObject(attribute);
+            return out.getCopyOfWrittenBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    public Object decode(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != MAGIC) {
+            return read(legacy, bytes, 0);
+        }
+        int version = bytes.length < HEADER_LENGTH ? 0 : bytes[1];
+        if (version < 1 || version > versions.length) {
+            log.warn("dropped session attribute of unknown format version {}, {} bytes", version, bytes.length);
+            unreadable.increment();
+            return null;
+        }
+        return read(versions[version - 1], bytes, HEADER_LENGTH);
+    }
+
+    /**
+     * Attributes read as {@code null} because they could not be decoded.
+     */
+    public long getUnreadable() {
+        return unreadable.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.attributes.unreadable", unreadable, LongAdder::sum)
+                .description("session attributes dropped because they could not be decoded")
+                .register(registry);
+    }
+
+    @Nullable
+    private Object read(FSTConfiguration configuration, byte[] bytes, int offset) {
+        try {
+            FSTObjectInput in = configuration.getObjectInput(bytes);
+            for (int i = 0; i < offset; i++) {
+                in.readByte();
+            }
+            return in.readObject();
+        } catch (Exception | LinkageError e) {
+            log.warn("dropped session attribute that cannot be read, {} bytes: {}", bytes.length, e.toString());
+            unreadable.increment();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses serialized session attributes of at least {@code threshold} bytes before they are stored. A compressed
+ * attribute is {@value #MAGIC}, the uncompressed length as a varint and the raw deflate stream; it is only stored when
+ * it is smaller than the uncompressed one. Anything else is passed through on read, neither the {@link SessionCodec}
+ * format nor legacy FST data start with {@value #MAGIC}, so rows stored before compression stay readable and a
+ * negative threshold only turns compression off for writes. Deflaters and inflaters are reused per thread.
+ */
+@Slf4j
+@Component
+public class SessionCompression implements MeterBinder {
+
+    static final byte MAGIC = 'Z';
+    static final int MAX_LENGTH = 64 * 1024 * 1024;
+    /**
+     * Magic byte and the longest varint.
+     */
+    private static final int MAX_HEADER_LENGTH = 6;
+
+    private final int threshold;
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder incompressible = new LongAdder();
+
+    @Autowired
+    public SessionCompression(@Value("${session.compression.threshold:512}") int threshold,
+                              @Value("${session.compression.level:1}") int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("session.compression.level must be within 1 and 9: " + level);
+        }
+        this.threshold = threshold;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+    }
+
+    public byte[] compress(byte[] raw) {
+        rawBytes.add(raw.length);
+        if (threshold < 0 || raw.length < threshold || raw.length <= MAX_HEADER_LENGTH) {
+            storedBytes.add(raw.length);
+            return raw;
+        }
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] stored = new byte[raw.length];
+        stored[0] = MAGIC;
+        int offset = writeVarint(stored, 1, raw.length);
+        while (!deflater.finished() && offset < stored.length) {
+            offset += deflater.deflate(stored, offset, stored.length - offset);
+        }
+        if (!deflater.finished()) {
+            incompressible.increment();
+            storedBytes.add(raw.length);
+            return raw;
+        }
+        compressed.increment();
+        storedBytes.add(offset);
+        return Arrays.copyOf(stored, offset);
+    }
+
+    /**
+     * @return the attribute as serialized, {@code null} for a corrupt compressed one
+     */
+    @Nullable
+    public byte[] decompress(byte[] stored) {
+        if (stored.length == 0 || stored[0] != MAGIC) {
+            return stored;
+        }
+        long length = 0;
+        int offset = 1;
+        for (int shift = 0; offset < stored.length && shift < 35; shift += 7) {
+            byte b = stored[offset++];
+            length |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        if (length > MAX_LENGTH) {
+            log.warn("dropped compressed session attribute of {} bytes with invalid length {}", stored.length, length);
+            return null;
+        }
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(stored, offset, stored.length - offset);
+        byte[] raw = new byte[(int) length];
+        try {
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int count = inflater.inflate(raw, read, raw.length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+            if (read != raw.length || !inflater.finished()) {
+                log.warn("dropped compressed session attribute of {} bytes, expected {} bytes, inflated {}",
+                        stored.length, raw.length, read);
+                return null;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            log.warn("dropped corrupt compressed session attribute of {} bytes: {}", stored.length, e.toString());
+            return null;
+        }
+    }
+
+    private static int writeVarint(byte[] bytes, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[offset++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        bytes[offset++] = (byte) value;
+        return offset;
+    }
+
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.attributes.raw.bytes", rawBytes, LongAdder::sum)
+                .description("serialized size of written session attributes")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("session.attributes.stored.bytes", storedBytes, LongAdder::sum)
+                .description("stored size of written session attributes, after compression")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("session.attributes.compressed", compressed, LongAdder::sum)
+                .description("session attributes stored compressed")
+                .register(registry);
+        FunctionCounter.builder("session.attributes.incompressible", incompressible, LongAdder::sum)
+                .description("session attributes above the threshold stored as is, compression did not make them smaller")
+                .register(registry);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sessions of this node with the stored bytes of their attributes, kept in front of the session tables by the
+ * {@link DeltaSessionRepository} to save selecting them; requests deserialize their own values from the bytes. An
+ * entry carries the {@code write_stamp} its attributes were loaded with; statement triggers on the attributes table
+ * increment the stamp of a session once for every statement of any node inserting, updating or deleting its
+ * attributes, so a different stamp means the entry is stale and the session is loaded from the tables again. How
+ * often the stamp is read is set by the {@link Consistency}: with sticky routing most reads of a session happen on
+ * the node that wrote it last, and {@link Consistency#BOUNDED} serves them without any query. Entries written by
+ * this node have no known stamp, since another node may write between the write and reading the stamp back, so they
+ * are loaded again on the first validation.
+ */
+@Component
+@ConditionalOnProperty(name = "session.near-cache.enable")
+public class SessionNearCache implements MeterBinder {
+
+    static final long UNKNOWN_STAMP = -1;
+
+    private final JdbcOperations jdbcOperations;
+    private final Consistency consistency;
+    private final long maxStalenessMillis;
+    private final Clock clock;
+    private final String stampQuery;
+    private final String touchQuery;
+    private final Cache<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder validated = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public SessionNearCache(JdbcOperations jdbcOperations,
+                            @Value("${spring.session.jdbc.table-name:SPRING_SESSION}") String tableName,
+                            @Value("${session.near-cache.max-size:10000}") long maxSize,
+                            @Value("${session.near-cache.consistency:bounded}") Consistency consistency,
+                            @Value("${session.near-cache.max-staleness:5s}") Duration maxStaleness) {
+        this(jdbcOperations, tableName, maxSize, consistency, maxStaleness, Clock.systemUTC());
+    }
+
+    public SessionNearCache(JdbcOperations jdbcOperations, String tableName, long maxSize, Consistency consistency,
+                            Duration maxStaleness, Clock clock) {
+        this.jdbcOperations = jdbcOperations;
+        this.consistency = consistency;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.clock = clock;
+        this.stampQuery = "SELECT WRITE_STAMP FROM " + tableName + " WHERE SESSION_ID = ?";
+        this.touchQuery = "UPDATE " + tableName + " SET LAST_ACCESS_TIME = ?, EXPIRY_TIME = ? WHERE SESSION_ID = ?";
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Entry of the session if it is still valid at the configured consistency, reading its stamp when needed.
+     */
+    @Nullable
+    public Entry get(String id) {
+        Entry entry = entries.getIfPresent(id);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        long now = clock.millis();
+        if (entry.isExpired(now)) {
+            entries.invalidate(id);
+            misses.increment();
+            return null;
+        }
+        if (consistency == Consistency.EVENTUAL
+                || consistency == Consistency.BOUNDED && now - entry.validated < maxStalenessMillis) {
+            hits.increment();
+            return entry;
+        }
+        if (entry.stamp != UNKNOWN_STAMP && entry.stamp == stamp(id)) {
+            entry.validated = now;
+            validated.increment();
+            return entry;
+        }
+        entries.invalidate(id);
+        stale.increment();
+        return null;
+    }
+
+    /**
+     * Current stamp of the session, read before loading it so the entry is never newer than its stamp.
+     */
+    public long stamp(String id) {
+        List<Long> stamps = jdbcOperations.queryForList(stampQuery, Long.class, id);
+        return stamps.isEmpty() || stamps.get(0) == null ? UNKNOWN_STAMP : stamps.get(0);
+    }
+
+    public void put(String id, Entry entry) {
+        entry.validated = clock.millis();
+        entries.put(id, entry);
+    }
+
+    public void invalidate(String id) {
+        entries.invalidate(id);
+    }
+
+    /**
+     * Stores the last access of a cached session whose attributes did not change, without loading it; the entry is
+     * dropped when no row was updated, since the session was deleted, expired or given a new id by another node.
+     */
+    public void touch(String id, Entry entry, Instant lastAccessedTime) {
+        if (lastAccessedTime.equals(entry.lastAccessedTime)) {
+            return;
+        }
+        Duration maxInactiveInterval = entry.maxInactiveInterval;
+        long expiryTime = maxInactiveInterval.isNegative()
+                ? Long.MAX_VALUE : lastAccessedTime.plus(maxInactiveInterval).toEpochMilli();
+        if (jdbcOperations.update(touchQuery, lastAccessedTime.toEpochMilli(), expiryTime, id) == 0) {
+            entries.invalidate(id);
+            stale.increment();
+            return;
+        }
+        accessed(id, entry, lastAccessedTime);
+    }
+
+    /**
+     * Replaces the entry of a session by one with the last access stored for it, as validated as the entry was.
+     */
+    public void accessed(String id, Entry entry, Instant lastAccessedTime) {
+        Entry accessed = new Entry(entry.stamp, entry.creationTime, lastAccessedTime, entry.maxInactiveInterval,
+                entry.bytes);
+        accessed.validated = entry.validated;
+        entries.asMap().replace(id, entry, accessed);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getValidated() {
+        return validated.sum();
+    }
+
+    public long getStale() {
+        return stale.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("session.near-cache.size", this, SessionNearCache::size)
+                .description("number of sessions kept deserialized on this node")
+                .register(registry);
+        bindReads(registry, "hit", hits, "session reads served from the near cache without a query");
+        bindReads(registry, "validated", validated, "session reads served from the near cache after reading the stamp");
+        bindReads(registry, "stale", stale, "session reads loaded from the tables because the stamp changed");
+        bindReads(registry, "miss", misses, "session reads loaded from the tables because no entry was cached");
+    }
+
+    private static void bindReads(MeterRegistry registry, String result, LongAdder counter, String description) {
+        FunctionCounter.builder("session.near-cache.reads", counter, LongAdder::sum)
+                .description(description)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public enum Consistency {
+        /**
+         * Reads the stamp of every session read.
+         */
+        STRONG,
+        /**
+         * Reads the stamp when the entry was validated more than {@code max-staleness} ago.
+         */
+        BOUNDED,
+        /**
+         * Never reads the stamp, only safe while every session is routed to a single node.
+         */
+        EVENTUAL
+    }
+
+    /**
+     * Stored bytes of the attributes of a session, never the deserialized values, which would be shared by its
+     * concurrent requests.
+     */
+    public static final class Entry {
+        private final long stamp;
+        private final Instant creationTime;
+        private final Instant lastAccessedTime;
+        private final Duration maxInactiveInterval;
+        private final Map<String, byte[]> bytes;
+        private volatile long validated;
+
+        public Entry(long stamp, Instant creationTime, Instant lastAccessedTime, Duration maxInactiveInterval,
+                     Map<String, byte[]> bytes) {
+            this.stamp = stamp;
+            this.creationTime = creationTime;
+            this.lastAccessedTime = lastAccessedTime;
+            this.maxInactiveInterval = maxInactiveInterval;
+            this.bytes = bytes;
+        }
+
+        public long getStamp() {
+            return stamp;
+        }
+
+        public Instant getCreationTime() {
+            return creationTime;
+        }
+
+        public Instant getLastAccessedTime() {
+            return lastAccessedTime;
+        }
+
+        public Duration getMaxInactiveInterval() {
+            return maxInactiveInterval;
+        }
+
+        public Map<String, byte[]> getBytes() {
+            return bytes;
+        }
+
+        private boolean isExpired(long now) {
+            return !maxInactiveInterval.isNegative()
+                    && now - lastAccessedTime.toEpochMilli() >= maxInactiveInterval.toMillis();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.component;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/slowrequests} returns the slowest requests of the last window with their timing tree,
+ * {@code DELETE /actuator/slowrequests} forgets them.
+ */
+@Component
+@Endpoint(id = "slowrequests")
+@ConditionalOnProperty(name = "logging.custom.flight-recorder.enable")
+public class SlowRequestEndpoint {
+
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    public SlowRequestEndpoint(SlowRequestRecorder slowRequestRecorder) {
+        this.slowRequestRecorder = slowRequestRecorder;
+    }
+
+    @ReadOperation
+    public List<SlowRequestRecorder.SlowRequest> slowRequests() {
+        return slowRequestRecorder.getSlowest();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowRequestRecorder.clear();
+    }
+}
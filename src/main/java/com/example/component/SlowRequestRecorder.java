@@ -0,0 +1,166 @@
+package com.example.component;
+
+import com.example.utils.RequestTrace;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the slowest requests of the last window together with their {@link RequestTrace}. A request faster than
+ * the slowest ones already kept is rejected by one volatile read, only qualifying requests copy their trace.
+ */
+@Component
+@ConditionalOnProperty(name = "logging.custom.flight-recorder.enable")
+public class SlowRequestRecorder {
+
+    private static final Comparator<SlowRequest> BY_DURATION = Comparator.comparingLong(request -> request.durationNanos);
+
+    private final int size;
+    private final long windowNanos;
+    private final long minDurationNanos;
+    private PriorityQueue<SlowRequest> current = new PriorityQueue<>(BY_DURATION);
+    private PriorityQueue<SlowRequest> previous = new PriorityQueue<>(BY_DURATION);
+    private volatile long windowStart = System.nanoTime();
+    /**
+     * Duration a request must exceed to be kept in the current window.
+     */
+    private volatile long floorNanos;
+
+    @Autowired
+    public SlowRequestRecorder(@Value("${logging.custom.flight-recorder.size:20}") int size,
+                               @Value("${logging.custom.flight-recorder.window-seconds:300}") long windowSeconds,
+                               @Value("${logging.custom.flight-recorder.min-duration-millis:0}") long minDurationMillis) {
+        this.size = size;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.minDurationNanos = TimeUnit.MILLISECONDS.toNanos(minDurationMillis);
+        this.floorNanos = minDurationNanos;
+    }
+
+    public void record(RequestTrace trace, long durationNanos, String requestId, int status) {
+        if (durationNanos <= floorNanos && trace.getStartNanos() + durationNanos - windowStart < windowNanos) {
+            return;
+        }
+        offer(new SlowRequest(trace, durationNanos, requestId, status));
+    }
+
+    private synchronized void offer(SlowRequest request) {
+        rotate(System.nanoTime());
+        current.add(request);
+        if (current.size() > size) {
+            current.poll();
+        }
+        if (current.size() == size) {
+            floorNanos = Math.max(minDurationNanos, current.peek().durationNanos);
+        }
+    }
+
+    private void rotate(long now) {
+        if (now - windowStart >= windowNanos) {
+            previous = now - windowStart >= 2 * windowNanos ? new PriorityQueue<>(BY_DURATION) : current;
+            current = new PriorityQueue<>(BY_DURATION);
+            windowStart = now;
+            floorNanos = minDurationNanos;
+        }
+    }
+
+    /**
+     * Slowest requests that ended within the last window, slowest first.
+     */
+    public synchronized List<SlowRequest> getSlowest() {
+        long now = System.nanoTime();
+        rotate(now);
+        List<SlowRequest> requests = new ArrayList<>(current);
+        for (SlowRequest request : previous) {
+            if (now - request.endNanos < windowNanos) {
+                requests.add(request);
+            }
+        }
+        requests.sort(BY_DURATION.reversed());
+        return requests.size() > size ? new ArrayList<>(requests.subList(0, size)) : requests;
+    }
+
+    public synchronized void clear() {
+        current.clear();
+        previous.clear();
+        floorNanos = minDurationNanos;
+    }
+
+    @Getter
+    public static final class SlowRequest {
+        private final Instant time;
+        private final String method;
+        private final String uri;
+        private final String requestId;
+        private final int status;
+        private final double durationMillis;
+        private final int droppedSpans;
+        private final List<Span> spans;
+        @Getter(AccessLevel.NONE)
+        private final long durationNanos;
+        @Getter(AccessLevel.NONE)
+        private final long endNanos;
+
+        private SlowRequest(RequestTrace trace, long durationNanos, String requestId, int status) {
+            long now = System.nanoTime();
+            this.time = Instant.now().minusNanos(now - trace.getStartNanos());
+            this.method = trace.getMethod();
+            this.uri = trace.getUri();
+            this.requestId = requestId;
+            this.status = status;
+            this.durationNanos = durationNanos;
+            this.durationMillis = durationNanos / 1_000_000.0;
+            this.droppedSpans = trace.getDroppedSpans();
+            this.endNanos = trace.getStartNanos() + durationNanos;
+            this.spans = toTree(trace);
+        }
+
+        private static List<Span> toTree(RequestTrace trace) {
+            List<Span> roots = new ArrayList<>();
+            List<Span> open = new ArrayList<>();
+            for (int i = 0; i < trace.size(); i++) {
+                int depth = trace.getDepth(i);
+                Span span = new Span(trace.getName(i), trace.getStartNanos(i) - trace.getStartNanos(),
+                        trace.getEndNanos(i) - trace.getStartNanos(i));
+                while (open.size() > depth) {
+                    open.remove(open.size() - 1);
+                }
+                if (open.isEmpty()) {
+                    roots.add(span);
+                } else {
+                    open.get(open.size() - 1).children.add(span);
+                }
+                open.add(span);
+            }
+            return roots;
+        }
+    }
+
+    @Getter
+    public static final class Span {
+        private final String name;
+        private final double offsetMillis;
+        private final double durationMillis;
+        private final List<Span> children = new ArrayList<>();
+
+        private Span(String name, long offsetNanos, long durationNanos) {
+            this.name = name;
+            this.offsetMillis = offsetNanos / 1_000_000.0;
+            this.durationMillis = durationNanos / 1_000_000.0;
+        }
+
+        public List<Span> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+    }
+}
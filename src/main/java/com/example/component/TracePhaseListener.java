@@ -0,0 +1,44 @@
+package com.example.component;
+
+import com.example.utils.RequestTrace;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+
+/**
+ * Adds a span per JSF lifecycle phase to the {@link RequestTrace}, invoked through the
+ * {@code DelegatingPhaseListenerMulticaster} of faces-config.xml.
+ */
+@Component
+@ConditionalOnProperty(name = "logging.custom.flight-recorder.enable")
+public class TracePhaseListener implements PhaseListener {
+
+    private static final long serialVersionUID = 1L;
+    private static final String[] SPAN_NAMES = PhaseId.VALUES.stream()
+            .map(phaseId -> "jsf " + phaseId.getName())
+            .toArray(String[]::new);
+
+    @Override
+    public void beforePhase(PhaseEvent event) {
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) {
+            trace.enter(SPAN_NAMES[event.getPhaseId().getOrdinal()]);
+        }
+    }
+
+    @Override
+    public void afterPhase(PhaseEvent event) {
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) {
+            trace.exit(SPAN_NAMES[event.getPhaseId().getOrdinal()]);
+        }
+    }
+
+    @Override
+    public PhaseId getPhaseId() {
+        return PhaseId.ANY_PHASE;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.component;
+
+import com.example.utils.RequestTrace;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Makes every statement Hibernate executes while a {@link RequestTrace} is active a span named by its SQL. The
+ * statement inspector remembers the SQL of the statement being prepared and the session event listener times its
+ * execution, so neither connections nor statements are wrapped.
+ */
+@Component
+@ConditionalOnProperty(name = "logging.custom.flight-recorder.enable")
+public class TracingStatementCustomizer implements HibernatePropertiesCustomizer {
+
+    private static final String BATCH = "jdbc batch";
+    private static final ThreadLocal<String> PREPARED_SQL = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) TracingStatementCustomizer::inspect);
+        hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, TracingSessionEvents.class.getName());
+    }
+
+    private static String inspect(String sql) {
+        if (RequestTrace.current() != null) {
+            PREPARED_SQL.set(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Created by Hibernate for each session, which is used by one thread at a time.
+     */
+    public static class TracingSessionEvents extends BaseSessionEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Nullable
+        private transient RequestTrace trace;
+        private transient int span = -1;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            String sql = PREPARED_SQL.get();
+            enter(sql == null ? "jdbc execute" : sql);
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            exit();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            enter(BATCH);
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            exit();
+        }
+
+        private void enter(String name) {
+            trace = RequestTrace.current();
+            if (trace != null) {
+                span = trace.enter(name);
+            }
+        }
+
+        private void exit() {
+            if (trace != null) {
+                trace.exit(span);
+                trace = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.component;
+
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+
+/**
+ * Leaves the id of the restored or created view in the {@value #VIEW_ID_ATTRIBUTE} request attribute, where
+ * {@link LoggingContextFilter} takes it as the URI template of the request. Registered in faces-config.xml.
+ */
+public class ViewIdPhaseListener implements PhaseListener {
+
+    public static final String VIEW_ID_ATTRIBUTE = ViewIdPhaseListener.class.getName() + ".VIEW_ID";
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void beforePhase(PhaseEvent event) {
+    }
+
+    @Override
+    public void afterPhase(PhaseEvent event) {
+        FacesContext context = event.getFacesContext();
+        UIViewRoot viewRoot = context.getViewRoot();
+        if (viewRoot != null) {
+            context.getExternalContext().getRequestMap().put(VIEW_ID_ATTRIBUTE, viewRoot.getViewId());
+        }
+    }
+
+    @Override
+    public PhaseId getPhaseId() {
+        return PhaseId.RESTORE_VIEW;
+    }
+}
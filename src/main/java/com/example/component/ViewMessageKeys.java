@@ -0,0 +1,35 @@
+package com.example.component;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Component
+public class ViewMessageKeys {
+
+    private static final int MAX_VIEWS = 256;
+    private static final int MAX_KEYS_PER_VIEW = 1000;
+
+    private final ConcurrentMap<String, Set<String>> keysByView = new ConcurrentHashMap<>();
+
+    public Set<String> get(String viewId) {
+        Set<String> keys = keysByView.get(viewId);
+        return keys == null ? Collections.emptySet() : keys;
+    }
+
+    public void add(String viewId, String key) {
+        Set<String> keys = keysByView.get(viewId);
+        if (keys == null) {
+            if (keysByView.size() >= MAX_VIEWS) {
+                return;
+            }
+            keys = keysByView.computeIfAbsent(viewId, id -> ConcurrentHashMap.newKeySet());
+        }
+        if (keys.size() < MAX_KEYS_PER_VIEW) {
+            keys.add(key);
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.example.config;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableCaching
 @EnableAspectJAutoProxy
+@EnableScheduling
 public class AppConfig {
 }
@@ -18,7 +18,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     protected void configure(HttpSecurity http) throws Exception {
         http
                 .authorizeRequests()
-                .antMatchers("/", "/home", "/welcome", "/favicon.ico").permitAll()
+                .antMatchers("/", "/home", "/welcome", "/favicon.ico", "/i18n/**").permitAll()
                 .anyRequest().hasRole("USER")
                 .and().formLogin().loginPage("/login").permitAll()
                 .and().logout().permitAll();
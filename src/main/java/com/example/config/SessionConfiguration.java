@@ -1,23 +1,59 @@
 package com.example.config;
 
+import com.example.component.DeltaSessionRepository;
+import com.example.component.SessionAccessWriter;
+import com.example.component.SessionCompression;
+import com.example.component.SessionNearCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
 import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
 
 @Configuration
 @EnableJdbcHttpSession(maxInactiveIntervalInSeconds = 24 * 60 * 60)
 public class SessionConfiguration {
 
+    /**
+     * Serializes session attributes with the FST converters and compresses them above the configured size; the stored
+     * bytes of each attribute read are reported to the {@link DeltaSessionRepository}, which compares them with the
+     * bytes of changed attributes and keeps them in its near cache.
+     */
     @Bean
     public ConversionService springSessionConversionService(Converter<byte[], Object> deserializingConverter,
-                                                            Converter<Object, byte[]> serializingConverter) {
+                                                            Converter<Object, byte[]> serializingConverter,
+                                                            SessionCompression compression) {
         DefaultConversionService conversionService = new DefaultConversionService();
-        conversionService.addConverter(byte[].class, Object.class, deserializingConverter);
-        conversionService.addConverter(Object.class, byte[].class, serializingConverter);
+        conversionService.addConverter(byte[].class, Object.class, source -> {
+            DeltaSessionRepository.attributeRead(source);
+            byte[] serialized = compression.decompress(source);
+            return serialized == null ? null : deserializingConverter.convert(serialized);
+        });
+        conversionService.addConverter(Object.class, byte[].class,
+                source -> compression.compress(serializingConverter.convert(source)));
         return conversionService;
     }
 
+    /**
+     * Session repository of the session filter, writes only the attributes whose bytes changed, reads sessions
+     * through the near cache and leaves their last access to the access writer when those are enabled.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "session.delta-writes.enable")
+    public DeltaSessionRepository<?> deltaSessionRepository(
+            JdbcIndexedSessionRepository sessionRepository,
+            @Qualifier("springSessionConversionService") ConversionService springSessionConversionService,
+            ObjectProvider<SessionNearCache> nearCache,
+            ObjectProvider<SessionAccessWriter> accessWriter) {
+        return new DeltaSessionRepository<>(sessionRepository, springSessionConversionService,
+                nearCache.getIfAvailable(), accessWriter.getIfAvailable());
+    }
+
 }
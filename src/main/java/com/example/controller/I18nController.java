@@ -0,0 +1,105 @@
+package com.example.controller;
+
+import com.example.component.I18nBundles;
+import com.example.component.I18nBundles.Bundle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Locale;
+
+/**
+ * Serves the complete message bundle of a language as JSON. Requests carrying the current bundle version in
+ * {@code v} may be cached forever; all others are revalidated with the ETag and answered with 304. Languages without
+ * messages are answered with 404.
+ */
+@Controller
+@ConditionalOnProperty(name = "i18n.catalog.enable")
+public class I18nController {
+
+    private static final String REVALIDATE = "public, no-cache";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String GZIP = "gzip";
+
+    private final I18nBundles bundles;
+
+    @Autowired
+    public I18nController(I18nBundles bundles) {
+        this.bundles = bundles;
+    }
+
+    @GetMapping("/i18n/{lang}")
+    public ResponseEntity<byte[]> bundle(@PathVariable String lang,
+                                         @Nullable @RequestParam(name = "v", required = false) String version,
+                                         @Nullable @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                         @Nullable @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Bundle bundle = bundles.get(Locale.forLanguageTag(lang));
+        if (bundle == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains(GZIP);
+        String eTag = gzip ? bundle.getGzippedETag() : bundle.getETag();
+
+        boolean notModified = ifNoneMatch != null
+                && matchesAny(ifNoneMatch, bundle.getETag(), bundle.getGzippedETag());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(eTag)
+                .header(HttpHeaders.CACHE_CONTROL, bundle.getVersion().equals(version) ? IMMUTABLE : REVALIDATE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header("X-I18n-Version", bundle.getVersion());
+        if (notModified) {
+            return response.build();
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.contentType(MediaType.APPLICATION_JSON)
+                .body(gzip ? bundle.getGzippedJson() : bundle.getJson());
+    }
+
+    /**
+     * Whether an {@code If-None-Match} list names one of the entity tags, compared weakly as the header requires, or
+     * is {@code *}. Either encoding of the bundle matches, a proxy may have compressed or decompressed it.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String... eTags) {
+        int length = ifNoneMatch.length();
+        int i = 0;
+        while (i < length) {
+            char c = ifNoneMatch.charAt(i);
+            if (c == ',' || Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '*') {
+                return true;
+            }
+            if (ifNoneMatch.startsWith("W/", i)) {
+                i += 2;
+            }
+            int end = i < length && ifNoneMatch.charAt(i) == '"' ? ifNoneMatch.indexOf('"', i + 1) : -1;
+            if (end < 0) {
+                // not an entity tag, skip to the next list element
+                int comma = ifNoneMatch.indexOf(',', i);
+                i = comma < 0 ? length : comma + 1;
+                continue;
+            }
+            for (String eTag : eTags) {
+                if (ifNoneMatch.regionMatches(i, eTag, 0, eTag.length()) && eTag.length() == end + 1 - i) {
+                    return true;
+                }
+            }
+            i = end + 1;
+        }
+        return false;
+    }
+}
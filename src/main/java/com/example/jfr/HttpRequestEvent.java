@@ -0,0 +1,28 @@
+package com.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.HttpRequest")
+@Label("HTTP Request")
+@Description("HTTP request served by the application, from the logging context filter")
+@Category({"Demo", "HTTP"})
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("URI Template")
+    public String uriTemplate;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Request Id")
+    public String requestId;
+}
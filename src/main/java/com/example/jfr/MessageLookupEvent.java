@@ -0,0 +1,29 @@
+package com.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.MessageLookup")
+@Label("Message Lookup")
+@Description("Resolution of an i18n message code through the locale fallback chain")
+@Category({"Demo", "I18n"})
+@StackTrace(false)
+public class MessageLookupEvent extends Event {
+
+    @Label("Code")
+    public String code;
+
+    @Label("Locale")
+    public String locale;
+
+    @Label("Cached")
+    @Description("Resolved from the remembered resolutions, without a catalog or database lookup")
+    public boolean cached;
+
+    @Label("Found")
+    public boolean found;
+}
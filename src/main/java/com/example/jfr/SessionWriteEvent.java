@@ -0,0 +1,24 @@
+package com.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.SessionWrite")
+@Label("Session Attribute Write")
+@Description("Serialization of a session attribute saved to the session store")
+@Category({"Demo", "Session"})
+@StackTrace(false)
+public class SessionWriteEvent extends Event {
+
+    @Label("Type")
+    public String type;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,25 @@
+package com.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.TimedMethod")
+@Label("Timed Method")
+@Description("Invocation of a method timed by @TimedMethod")
+@Category({"Demo", "Methods"})
+@StackTrace(false)
+public class TimedMethodEvent extends Event {
+
+    @Label("Class")
+    public String className;
+
+    @Label("Method")
+    public String methodName;
+
+    @Label("Failed")
+    public boolean failed;
+}
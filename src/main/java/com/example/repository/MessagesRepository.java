@@ -1,5 +1,6 @@
 package com.example.repository;
 
+import com.example.annotation.TimedMethod;
 import com.example.entity.Message;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
@@ -10,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,9 +19,24 @@ import java.util.Optional;
 @Transactional(isolation = Isolation.READ_UNCOMMITTED, readOnly = true)
 public interface MessagesRepository extends JpaRepository<Message, Long> {
 
+    /**
+     * Loads the message catalog. It and the lookups below are timed here rather than on the message source, which
+     * calls them only for codes it has not resolved yet.
+     */
+    @Override
+    @TimedMethod(logAboveMillis = 20, logSampleRate = 0, percentiles = {}, histogram = true)
+    List<Message> findAll();
+
     @Cacheable(cacheNames = "i18n")
+    @TimedMethod(logAboveMillis = 20, logSampleRate = 0, percentiles = {}, histogram = true)
     Optional<Message> findByKeyAndLang(String key, String lang);
 
+    @TimedMethod(logAboveMillis = 20, logSampleRate = 0, percentiles = {}, histogram = true)
+    List<Message> findByKeyInAndLang(Collection<String> keys, String lang);
+
+    @TimedMethod(logAboveMillis = 20, logSampleRate = 0, percentiles = {}, histogram = true)
+    List<Message> findByLang(String lang);
+
     Page<Message> findPageByKeyContainingAndLangContainingAndTextContaining(String key, String lang, String text, Pageable pageable);
 
     @Query("select m from Message m where (:lang is null OR (LOWER(m.lang) like LOWER(CONCAT('%', :lang, '%')))) " +
@@ -0,0 +1,96 @@
+package com.example.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.utils.AccessLogFiles.*;
+
+/**
+ * Offline decoder of {@link AccessLogFiles} to JSON lines:
+ * {@code java -cp <classes> com.example.utils.AccessLogDecoder <file or directory>...}
+ */
+public final class AccessLogDecoder {
+
+    private AccessLogDecoder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            List<Path> files = Files.isDirectory(path) ? AccessLogFiles.list(path) : List.of(path);
+            for (Path file : files) {
+                decode(file, out);
+            }
+        }
+        out.flush();
+    }
+
+    public static void decode(Path file, Appendable out) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IOException("not an access log: " + file);
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported access log version " + version + ": " + file);
+        }
+
+        Map<Integer, String> templates = new HashMap<>();
+        while (in.hasRemaining()) {
+            byte type = in.get();
+            if (type == RECORD && in.remaining() >= RECORD_SIZE - 1) {
+                appendRecord(out, in.getLong(), in.getLong(), in.getLong(), in.getLong(), in.getLong(), templates);
+            } else if (type == DEFINITION && in.remaining() >= 6) {
+                int templateId = in.getInt();
+                byte[] template = new byte[in.getShort() & 0xFFFF];
+                in.get(template);
+                templates.put(templateId, new String(template, StandardCharsets.UTF_8));
+            } else {
+                // END or a record cut short by a crash
+                break;
+            }
+        }
+    }
+
+    private static void appendRecord(Appendable out, long startMillis, long durationNanos, long requestBytes,
+                                     long responseBytes, long attributes, Map<Integer, String> templates)
+            throws IOException {
+        int method = AccessLogRing.method(attributes);
+        out.append("{\"time\":\"").append(Instant.ofEpochMilli(startMillis).toString())
+                .append("\",\"method\":\"").append(method < METHODS.length ? METHODS[method] : METHODS[0])
+                .append("\",\"uri\":");
+        appendString(out, templates.getOrDefault(AccessLogRing.templateId(attributes), "?"));
+        out.append(",\"status\":").append(Integer.toString(AccessLogRing.status(attributes)))
+                .append(",\"durationNanos\":").append(Long.toString(durationNanos))
+                .append(",\"requestBytes\":").append(Long.toString(requestBytes))
+                .append(",\"responseBytes\":").append(Long.toString(responseBytes))
+                .append("}\n");
+    }
+
+    private static void appendString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.utils;
+
+import org.springframework.lang.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes access-log records to rotating memory-mapped files, each one readable on its own by
+ * {@link AccessLogDecoder}.
+ * <pre>
+ * file:       magic "ALOG", int version, entries..., zero padding
+ * record:     byte 1, long startMillis, long durationNanos, long requestBytes, long responseBytes, long attributes
+ * definition: byte 2, int templateId, short length, UTF-8 template; written before the first record using the id
+ * </pre>
+ * Not thread-safe, owned by the single writer thread.
+ */
+public final class AccessLogFiles implements Closeable {
+
+    static final int MAGIC = 0x414C4F47;
+    static final int VERSION = 1;
+    static final byte END = 0;
+    static final byte RECORD = 1;
+    static final byte DEFINITION = 2;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 1 + 5 * Long.BYTES;
+    static final int MAX_TEMPLATE_BYTES = 1024;
+    static final String PREFIX = "access-";
+    static final String SUFFIX = ".alog";
+    static final String[] METHODS = {"OTHER", "GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+
+    private final Path directory;
+    private final int fileSize;
+    private final int maxFiles;
+    private final IntFunction<String> templates;
+    private final BitSet defined = new BitSet();
+    @Nullable
+    private FileChannel channel;
+    @Nullable
+    private MappedByteBuffer buffer;
+    private int sequence;
+
+    public AccessLogFiles(Path directory, int fileSize, int maxFiles, IntFunction<String> templates) {
+        if (fileSize < HEADER_SIZE + RECORD_SIZE + 7 + MAX_TEMPLATE_BYTES) {
+            throw new IllegalArgumentException("file size too small: " + fileSize);
+        }
+        this.directory = directory;
+        this.fileSize = fileSize;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.templates = templates;
+    }
+
+    public static int methodId(String method) {
+        for (int i = 1; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    public void write(long startMillis, long durationNanos, long requestBytes, long responseBytes, long attributes)
+            throws IOException {
+        int templateId = AccessLogRing.templateId(attributes);
+        byte[] template = defined.get(templateId) ? null : templateBytes(templateId);
+        MappedByteBuffer out = buffer;
+        if (out == null || out.remaining() < RECORD_SIZE + (template == null ? 0 : 7 + template.length)) {
+            out = rotate();
+            template = templateBytes(templateId);
+        }
+
+        if (template != null) {
+            out.put(DEFINITION).putInt(templateId).putShort((short) template.length).put(template);
+            defined.set(templateId);
+        }
+        out.put(RECORD)
+                .putLong(startMillis)
+                .putLong(durationNanos)
+                .putLong(requestBytes)
+                .putLong(responseBytes)
+                .putLong(attributes);
+    }
+
+    public void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        buffer = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private byte[] templateBytes(int templateId) {
+        String template = templates.apply(templateId);
+        byte[] bytes = (template == null ? "" : template).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_TEMPLATE_BYTES) {
+            bytes = Arrays.copyOf(bytes, MAX_TEMPLATE_BYTES);
+        }
+        return bytes;
+    }
+
+    private MappedByteBuffer rotate() throws IOException {
+        close();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(String.format("%s%013d-%06d%s", PREFIX, System.currentTimeMillis(),
+                sequence++ % 1_000_000, SUFFIX));
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = opened.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        mapped.putInt(MAGIC).putInt(VERSION);
+        channel = opened;
+        buffer = mapped;
+        defined.clear();
+        deleteOldFiles();
+        return mapped;
+    }
+
+    private void deleteOldFiles() throws IOException {
+        List<Path> files = list(directory);
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * Access-log files of the directory, oldest first.
+     */
+    public static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded lock-free ring of fixed-size access-log records for many producers and a single consumer. Producers claim
+ * a sequence with a CAS, write the record fields into preallocated arrays and publish the slot; when the ring is
+ * full the record is dropped and counted instead of blocking the request thread. The producer and consumer
+ * positions sit on separate cache lines, and producers check a cached lower bound of the consumer position before
+ * reading the one the consumer keeps writing.
+ */
+public final class AccessLogRing {
+
+    private static final int PADDING = 16;
+    private static final int TAIL = PADDING;
+    private static final int CACHED_HEAD = 2 * PADDING;
+    private static final int HEAD = 3 * PADDING;
+
+    private final int capacity;
+    private final int mask;
+    private final long[] startNanos;
+    private final long[] durationNanos;
+    private final long[] requestBytes;
+    private final long[] responseBytes;
+    /**
+     * Status, method and URI template id, see {@link #pack(int, int, int)}.
+     */
+    private final long[] attributes;
+    private final AtomicLongArray published;
+    /**
+     * Tail, cached head and head, 128 bytes apart.
+     */
+    private final AtomicLongArray positions = new AtomicLongArray(4 * PADDING);
+    private final LongAdder dropped = new LongAdder();
+
+    public AccessLogRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.startNanos = new long[capacity];
+        this.durationNanos = new long[capacity];
+        this.requestBytes = new long[capacity];
+        this.responseBytes = new long[capacity];
+        this.attributes = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+    }
+
+    public static long pack(int status, int method, int templateId) {
+        return (long) (status & 0xFFFF) << 48 | (long) (method & 0xFFFF) << 32 | templateId & 0xFFFF_FFFFL;
+    }
+
+    public static int status(long attributes) {
+        return (int) (attributes >>> 48);
+    }
+
+    public static int method(long attributes) {
+        return (int) (attributes >>> 32) & 0xFFFF;
+    }
+
+    public static int templateId(long attributes) {
+        return (int) attributes;
+    }
+
+    public boolean offer(long start, long duration, long requestLength, long responseLength, long packedAttributes) {
+        long sequence;
+        do {
+            sequence = positions.get(TAIL);
+            if (sequence - positions.getPlain(CACHED_HEAD) >= capacity) {
+                // any stale value is still a lower bound of the head
+                long head = positions.get(HEAD);
+                positions.setPlain(CACHED_HEAD, head);
+                if (sequence - head >= capacity) {
+                    dropped.increment();
+                    return false;
+                }
+            }
+        } while (!positions.compareAndSet(TAIL, sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        startNanos[slot] = start;
+        durationNanos[slot] = duration;
+        requestBytes[slot] = requestLength;
+        responseBytes[slot] = responseLength;
+        attributes[slot] = packedAttributes;
+        published.lazySet(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Hands at most {@code max} published records to the sink in order; only one thread may drain.
+     */
+    public int drain(Sink sink, int max) {
+        long sequence = positions.getPlain(HEAD);
+        int count = 0;
+        while (count < max) {
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence + 1) {
+                break;
+            }
+            sink.accept(startNanos[slot], durationNanos[slot], requestBytes[slot], responseBytes[slot],
+                    attributes[slot]);
+            sequence++;
+            count++;
+            positions.lazySet(HEAD, sequence);
+        }
+        return count;
+    }
+
+    public int size() {
+        return (int) Math.max(0, positions.get(TAIL) - positions.get(HEAD));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(long startNanos, long durationNanos, long requestBytes, long responseBytes, long attributes);
+    }
+}
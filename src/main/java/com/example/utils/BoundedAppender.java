@@ -0,0 +1,130 @@
+package com.example.utils;
+
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Keeps at most {@code limit} characters and renders arrays, collections and maps element by element the way their
+ * {@code toString()} would, so that rendering stops as soon as the limit is reached.
+ */
+final class BoundedAppender implements Appendable {
+
+    private static final int MAX_INITIAL_CAPACITY = 256;
+
+    private final StringBuilder out;
+    private final int limit;
+
+    BoundedAppender(int limit) {
+        this.limit = limit;
+        this.out = new StringBuilder(Math.min(limit, MAX_INITIAL_CAPACITY));
+    }
+
+    boolean isFull() {
+        return out.length() >= limit;
+    }
+
+    BoundedAppender appendObject(@Nullable Object value) {
+        if (isFull()) {
+            return this;
+        }
+        if (value == null || value instanceof CharSequence) {
+            return append((CharSequence) value);
+        }
+        if (value instanceof Collection) {
+            return appendElements((Collection<?>) value);
+        }
+        if (value instanceof Map) {
+            return appendEntries((Map<?, ?>) value);
+        }
+        if (value.getClass().isArray()) {
+            return appendArray(value);
+        }
+        return append(value.toString());
+    }
+
+    private BoundedAppender appendElements(Collection<?> collection) {
+        append('[');
+        Iterator<?> iterator = collection.iterator();
+        boolean first = true;
+        while (iterator.hasNext() && !isFull()) {
+            if (!first) {
+                append(", ");
+            }
+            Object element = iterator.next();
+            if (element == collection) {
+                append("(this Collection)");
+            } else {
+                appendObject(element);
+            }
+            first = false;
+        }
+        return append(']');
+    }
+
+    private BoundedAppender appendEntries(Map<?, ?> map) {
+        append('{');
+        Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+        boolean first = true;
+        while (iterator.hasNext() && !isFull()) {
+            if (!first) {
+                append(", ");
+            }
+            Map.Entry<?, ?> entry = iterator.next();
+            appendMapPart(map, entry.getKey()).append('=');
+            appendMapPart(map, entry.getValue());
+            first = false;
+        }
+        return append('}');
+    }
+
+    private BoundedAppender appendMapPart(Map<?, ?> map, @Nullable Object part) {
+        return part == map ? append("(this Map)") : appendObject(part);
+    }
+
+    private BoundedAppender appendArray(Object array) {
+        append('[');
+        int length = Array.getLength(array);
+        for (int i = 0; i < length && !isFull(); i++) {
+            if (i > 0) {
+                append(", ");
+            }
+            appendObject(Array.get(array, i));
+        }
+        return append(']');
+    }
+
+    @Override
+    public BoundedAppender append(@Nullable CharSequence csq) {
+        CharSequence text = csq == null ? "null" : csq;
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public BoundedAppender append(@Nullable CharSequence csq, int start, int end) {
+        if (csq == null) {
+            return append("null", start, end);
+        }
+        int room = limit - out.length();
+        if (room > 0) {
+            out.append(csq, start, Math.min(end, start + room));
+        }
+        return this;
+    }
+
+    @Override
+    public BoundedAppender append(char c) {
+        if (!isFull()) {
+            out.append(c);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.utils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Values created once per key for at most {@code maxKeys} keys; any later key shares the value of its overflow key,
+ * typically the same key with {@value #OTHER} in place of the URI template or view id, created on top of the limit
+ * unless it was looked up before. Bounds the meters, histograms and ids kept per endpoint whatever clients request.
+ * Lookups of known keys do not lock.
+ */
+public final class BoundedKeys<K, V> {
+
+    public static final String OTHER = "{other}";
+
+    private final int maxKeys;
+    private final UnaryOperator<K> overflow;
+    private final Function<? super K, ? extends V> factory;
+    private final ConcurrentMap<K, V> values = new ConcurrentHashMap<>();
+
+    public BoundedKeys(int maxKeys, UnaryOperator<K> overflow, Function<? super K, ? extends V> factory) {
+        this.maxKeys = maxKeys;
+        this.overflow = overflow;
+        this.factory = factory;
+    }
+
+    public V get(K key) {
+        V value = values.get(key);
+        return value == null ? create(key) : value;
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        values.forEach(action);
+    }
+
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(values.values());
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    private synchronized V create(K key) {
+        V value = values.get(key);
+        if (value == null) {
+            K bounded = values.size() >= maxKeys ? overflow.apply(key) : key;
+            value = values.get(bounded);
+            if (value == null) {
+                value = factory.apply(bounded);
+                values.put(bounded, value);
+            }
+        }
+        return value;
+    }
+}
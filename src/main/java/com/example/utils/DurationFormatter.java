@@ -0,0 +1,62 @@
+package com.example.utils;
+
+/**
+ * Renders a nanosecond duration as {@code HH:mm:ss.SSSms uuuus nnnns} with integer arithmetic only. Hours are not
+ * wrapped at a day and grow past two digits when needed; negative durations get a leading {@code -}.
+ */
+public final class DurationFormatter {
+
+    private static final long NANOS_PER_MICRO = 1000L;
+    private static final long NANOS_PER_MILLI = 1000L * NANOS_PER_MICRO;
+    private static final long NANOS_PER_SECOND = 1000L * NANOS_PER_MILLI;
+    private static final long NANOS_PER_MINUTE = 60L * NANOS_PER_SECOND;
+    private static final long NANOS_PER_HOUR = 60L * NANOS_PER_MINUTE;
+    /**
+     * Length of the longest output, {@link Long#MIN_VALUE}.
+     */
+    private static final int MAX_LENGTH = 32;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(MAX_LENGTH));
+
+    private DurationFormatter() {
+    }
+
+    public static String format(long nanos) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return formatTo(buffer, nanos).toString();
+    }
+
+    /**
+     * Appends the duration without allocating beyond the growth of {@code out}.
+     */
+    public static StringBuilder formatTo(StringBuilder out, long nanos) {
+        long hours = nanos / NANOS_PER_HOUR;
+        long rest = nanos % NANOS_PER_HOUR;
+        if (nanos < 0) {
+            out.append('-');
+            hours = -hours;
+            rest = -rest;
+        }
+
+        if (hours < 10) {
+            out.append('0');
+        }
+        out.append(hours).append(':');
+        appendTwoDigits(out, (int) (rest / NANOS_PER_MINUTE)).append(':');
+        appendTwoDigits(out, (int) (rest % NANOS_PER_MINUTE / NANOS_PER_SECOND)).append('.');
+        appendThreeDigits(out, (int) (rest % NANOS_PER_SECOND / NANOS_PER_MILLI)).append("ms ");
+        appendThreeDigits(out, (int) (rest % NANOS_PER_MILLI / NANOS_PER_MICRO)).append("us ");
+        return appendThreeDigits(out, (int) (rest % NANOS_PER_MICRO)).append("ns");
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10))
+                .append((char) ('0' + value % 10));
+    }
+
+    private static StringBuilder appendThreeDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 100))
+                .append((char) ('0' + value / 10 % 10))
+                .append((char) ('0' + value % 10));
+    }
+}
@@ -6,23 +6,35 @@ public interface LongStringUtils {
     String STR_SUFFIX = " ...>";
 
     static String formatLongString(Object input) {
+        return formatLongString(input, MAX_CHARS);
+    }
+
+    /**
+     * Renders at most {@code maxChars + 1} characters of the input; arrays, collections and maps are walked element
+     * by element, so large arguments and results are never stringified as a whole.
+     */
+    static String formatLongString(Object input, int maxChars) {
         if (input == null) {
             return "{null}";
         }
-        String string = input.toString();
+        String string = new BoundedAppender(maxChars + 1).appendObject(input).toString();
         if ("".equals(string)) {
             return "{empty}";
         }
 
         int length = string.length();
-        if (length <= MAX_CHARS) {
+        if (length <= maxChars) {
             return string;
         }
-        return getSubString(string);
+        return getSubString(string, maxChars);
     }
 
     static String getSubString(String string) {
-        String substring = string.substring(0, MAX_CHARS);
+        return getSubString(string, MAX_CHARS);
+    }
+
+    static String getSubString(String string, int maxChars) {
+        String substring = string.substring(0, maxChars);
         int indexOf = substring.lastIndexOf(' ');
         if (indexOf > -1) {
             substring = substring.substring(0, indexOf);
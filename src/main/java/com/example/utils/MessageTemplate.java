@@ -0,0 +1,197 @@
+package com.example.utils;
+
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+
+/**
+ * Message text parsed once into literal and argument segments, rendering the same output as
+ * {@link String#format(String, Object...)}. Texts without {@code %} are returned as is; texts using only
+ * {@code %s}, {@code %n$s}, {@code %%} and {@code %n} are rendered by appending segments to a per-thread builder;
+ * any other conversion is delegated to a per-thread {@link Formatter} over the same builder.
+ */
+public final class MessageTemplate {
+
+    private static final int MAX_RETAINED_CAPACITY = 1024;
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+    private static final Object[] NO_SEGMENTS = {};
+
+    private final String text;
+    private final Kind kind;
+    private final Object[] segments;
+
+    private MessageTemplate(String text, Kind kind, Object[] segments) {
+        this.text = text;
+        this.kind = kind;
+        this.segments = segments;
+    }
+
+    public static MessageTemplate compile(String text) {
+        if (text.indexOf('%') < 0) {
+            return new MessageTemplate(text, Kind.PLAIN, NO_SEGMENTS);
+        }
+
+        List<Object> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int ordinaryIndex = 0;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            int specEnd = parseSpecifier(text, i + 1);
+            if (specEnd < 0) {
+                return new MessageTemplate(text, Kind.FORMATTER, NO_SEGMENTS);
+            }
+
+            char conversion = text.charAt(specEnd);
+            if (conversion == '%') {
+                literal.append('%');
+            } else if (conversion == 'n') {
+                literal.append(System.lineSeparator());
+            } else {
+                if (literal.length() > 0) {
+                    segments.add(literal.toString());
+                    literal.setLength(0);
+                }
+                segments.add(specEnd == i + 1 ? ordinaryIndex++ : Integer.parseInt(text, i + 1, specEnd - 1, 10) - 1);
+            }
+            i = specEnd + 1;
+        }
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+        }
+
+        return new MessageTemplate(text, Kind.SEGMENTS, segments.toArray());
+    }
+
+    /**
+     * Returns the index of the conversion character of a {@code %s}, {@code %n$s}, {@code %%} or {@code %n}
+     * specifier starting at {@code from}, or -1 for anything that needs a full {@link Formatter}.
+     */
+    private static int parseSpecifier(String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i > from) {
+            if (i + 1 >= text.length() || text.charAt(i) != '$' || text.charAt(from) == '0') {
+                return -1;
+            }
+            return text.charAt(i + 1) == 's' ? i + 1 : -1;
+        }
+
+        if (i >= text.length()) {
+            return -1;
+        }
+        char conversion = text.charAt(i);
+        return conversion == 's' || conversion == '%' || conversion == 'n' ? i : -1;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isPlain() {
+        return kind == Kind.PLAIN;
+    }
+
+    public String format(@Nullable Object[] args) {
+        if (kind == Kind.PLAIN) {
+            return text;
+        }
+
+        Buffer buffer = BUFFER.get();
+        if (buffer.inUse) {
+            // an argument's toString() formats another message on this thread
+            buffer = new Buffer();
+        }
+        buffer.inUse = true;
+        try {
+            if (kind == Kind.SEGMENTS && !hasFormattable(args)) {
+                appendSegments(buffer.builder, args);
+            } else {
+                buffer.formatter.format(Locale.getDefault(Locale.Category.FORMAT), text, args);
+            }
+            return buffer.builder.toString();
+        } finally {
+            buffer.reset();
+        }
+    }
+
+    private void appendSegments(StringBuilder builder, @Nullable Object[] args) {
+        for (Object segment : segments) {
+            if (segment instanceof String) {
+                builder.append((String) segment);
+            } else {
+                builder.append(argument(args, (Integer) segment));
+            }
+        }
+    }
+
+    @Nullable
+    private Object argument(@Nullable Object[] args, int index) {
+        if (args == null) {
+            return null;
+        }
+        if (index >= args.length) {
+            throw new MissingFormatArgumentException("Format specifier '%s' for argument " + (index + 1));
+        }
+        return args[index];
+    }
+
+    private static boolean hasFormattable(@Nullable Object[] args) {
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof Formattable) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof MessageTemplate && text.equals(((MessageTemplate) o).text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private enum Kind {
+        PLAIN, SEGMENTS, FORMATTER
+    }
+
+    private static final class Buffer {
+        private StringBuilder builder = new StringBuilder();
+        private Formatter formatter = new Formatter(builder);
+        private boolean inUse;
+
+        private void reset() {
+            inUse = false;
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                builder = new StringBuilder();
+                formatter = new Formatter(builder);
+            } else {
+                builder.setLength(0);
+            }
+        }
+    }
+}
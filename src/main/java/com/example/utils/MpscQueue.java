@@ -0,0 +1,102 @@
+package com.example.utils;
+
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer, the object counterpart of
+ * {@link AccessLogRing}: producers claim a sequence with a CAS and publish the element into its slot, the consumer
+ * takes elements in sequence order and clears their slots. A full queue rejects the element and counts it as dropped.
+ */
+public final class MpscQueue<E> {
+
+    private static final int PADDING = 16;
+    private static final int TAIL = PADDING;
+    private static final int HEAD = 2 * PADDING;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    /**
+     * Tail and head, 128 bytes apart.
+     */
+    private final AtomicLongArray positions = new AtomicLongArray(3 * PADDING);
+    private final LongAdder dropped = new LongAdder();
+
+    public MpscQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = positions.get(TAIL);
+            if (sequence - positions.get(HEAD) >= capacity) {
+                dropped.increment();
+                return false;
+            }
+        } while (!positions.compareAndSet(TAIL, sequence, sequence + 1));
+        slots.lazySet((int) sequence & mask, element);
+        return true;
+    }
+
+    /**
+     * Counts an element the caller rejected by its own policy.
+     */
+    public void drop() {
+        dropped.increment();
+    }
+
+    @Nullable
+    public E poll() {
+        long sequence = positions.getPlain(HEAD);
+        int slot = (int) sequence & mask;
+        E element = slots.get(slot);
+        if (element != null) {
+            slots.lazySet(slot, null);
+            positions.lazySet(HEAD, sequence + 1);
+        }
+        return element;
+    }
+
+    /**
+     * Hands at most {@code max} published elements to the consumer in order; only one thread may drain.
+     */
+    public int drain(Consumer<E> consumer, int max) {
+        int count = 0;
+        while (count < max) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    public int size() {
+        return (int) Math.max(0, positions.get(TAIL) - positions.get(HEAD));
+    }
+
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.utils;
+
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Request ids: 64 random bits from the per-thread generator written as 13 lowercase base32 characters, or an id
+ * taken over from the caller.
+ */
+public final class RequestIds {
+
+    public static final int LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+    private static final int MAX_INBOUND_LENGTH = 64;
+    private static final int TRACE_ID_START = 3;
+    private static final int TRACE_ID_END = 35;
+    private static final int TRACEPARENT_LENGTH = 55;
+
+    private RequestIds() {
+    }
+
+    public static String next() {
+        long bits = ThreadLocalRandom.current().nextLong();
+        char[] id = new char[LENGTH];
+        // 13 * 5 = 65 bits, the first character only carries the top 4
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            id[i] = ALPHABET[(int) (bits & 31)];
+            bits >>>= 5;
+        }
+        return new String(id);
+    }
+
+    /**
+     * The inbound {@code X-Request-Id} when it is short and made of {@code [A-Za-z0-9._-]} only, else the trace id
+     * of a valid W3C {@code traceparent}, else a new id.
+     */
+    public static String resolve(@Nullable String requestId, @Nullable String traceparent) {
+        if (isValid(requestId)) {
+            return requestId;
+        }
+        String traceId = traceId(traceparent);
+        return traceId == null ? next() : traceId;
+    }
+
+    private static boolean isValid(@Nullable String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_INBOUND_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            boolean allowed = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                    || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trace id of a {@code version-traceid-parentid-flags} header, null when malformed or all zeros.
+     */
+    @Nullable
+    private static String traceId(@Nullable String traceparent) {
+        if (traceparent == null || traceparent.length() < TRACEPARENT_LENGTH || traceparent.charAt(2) != '-'
+                || traceparent.charAt(TRACE_ID_END) != '-' || traceparent.startsWith("ff")) {
+            return null;
+        }
+        boolean zero = true;
+        for (int i = TRACE_ID_START; i < TRACE_ID_END; i++) {
+            char c = traceparent.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return null;
+            }
+            zero &= c == '0';
+        }
+        return zero ? null : traceparent.substring(TRACE_ID_START, TRACE_ID_END);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.utils;
+
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate work done by the request served by the current thread: statements, HQL queries with their rows and
+ * time, hydrated entities and collections, and how often each query shape ran. A shape is the HQL string, the entity
+ * name of an entity fetched by its own select or the role of a collection fetched by its own select, so a query
+ * followed by a fetch per row shows up as a shape repeated once per row. The accumulator is reused by the next
+ * request of the thread.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> STATS = ThreadLocal.withInitial(RequestQueryStats::new);
+
+    private final Map<String, int[]> shapes = new HashMap<>();
+    private boolean active;
+    private int statements;
+    private int queries;
+    private long rows;
+    private int entityLoads;
+    private int entityFetches;
+    private int collectionLoads;
+    private int collectionFetches;
+    @Nullable
+    private String slowestQuery;
+    private long slowestQueryMillis;
+
+    private RequestQueryStats() {
+    }
+
+    public static RequestQueryStats begin() {
+        RequestQueryStats stats = STATS.get();
+        stats.active = true;
+        stats.shapes.clear();
+        stats.statements = 0;
+        stats.queries = 0;
+        stats.rows = 0;
+        stats.entityLoads = 0;
+        stats.entityFetches = 0;
+        stats.collectionLoads = 0;
+        stats.collectionFetches = 0;
+        stats.slowestQuery = null;
+        stats.slowestQueryMillis = 0;
+        return stats;
+    }
+
+    @Nullable
+    public static RequestQueryStats current() {
+        RequestQueryStats stats = STATS.get();
+        return stats.active ? stats : null;
+    }
+
+    /**
+     * Detaches the accumulator from the thread and returns what it counted, shapes run more than
+     * {@code repeatThreshold} times are reported as repeated.
+     */
+    public Snapshot end(int repeatThreshold) {
+        active = false;
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.forEach((shape, count) -> {
+            if (count[0] > repeatThreshold) {
+                repeated.put(shape, count[0]);
+            }
+        });
+        return new Snapshot(this, repeated);
+    }
+
+    public void statementPrepared() {
+        statements++;
+    }
+
+    public void queryExecuted(String hql, int rowCount, long millis) {
+        queries++;
+        rows += Math.max(rowCount, 0);
+        if (slowestQuery == null || millis > slowestQueryMillis) {
+            slowestQuery = hql;
+            slowestQueryMillis = millis;
+        }
+        countShape(hql);
+    }
+
+    public void entityLoaded() {
+        entityLoads++;
+    }
+
+    public void entityFetched(String entityName) {
+        entityFetches++;
+        countShape(entityName);
+    }
+
+    public void collectionLoaded() {
+        collectionLoads++;
+    }
+
+    public void collectionFetched(String role) {
+        collectionFetches++;
+        countShape(role);
+    }
+
+    private void countShape(String shape) {
+        shapes.computeIfAbsent(shape, key -> new int[1])[0]++;
+    }
+
+    @Getter
+    public static final class Snapshot {
+        private final int statements;
+        private final int queries;
+        private final long rows;
+        private final int entityLoads;
+        private final int entityFetches;
+        private final int collectionLoads;
+        private final int collectionFetches;
+        @Nullable
+        private final String slowestQuery;
+        private final long slowestQueryMillis;
+        /**
+         * Query shapes run more than the repeat threshold, with their counts.
+         */
+        private final Map<String, Integer> repeatedShapes;
+
+        private Snapshot(RequestQueryStats stats, Map<String, Integer> repeatedShapes) {
+            this.statements = stats.statements;
+            this.queries = stats.queries;
+            this.rows = stats.rows;
+            this.entityLoads = stats.entityLoads;
+            this.entityFetches = stats.entityFetches;
+            this.collectionLoads = stats.collectionLoads;
+            this.collectionFetches = stats.collectionFetches;
+            this.slowestQuery = stats.slowestQuery;
+            this.slowestQueryMillis = stats.slowestQueryMillis;
+            this.repeatedShapes = repeatedShapes;
+        }
+    }
+}
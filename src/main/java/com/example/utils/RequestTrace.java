@@ -0,0 +1,140 @@
+package com.example.utils;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Timing spans of the request served by the current thread, kept in preallocated arrays that are reused by the next
+ * request of the thread. Span names are stored by reference, so recording a span costs two {@link System#nanoTime()}
+ * calls and a few array stores.
+ */
+public final class RequestTrace {
+
+    public static final int MAX_SPANS = 256;
+    private static final ThreadLocal<RequestTrace> TRACES = ThreadLocal.withInitial(RequestTrace::new);
+
+    private final String[] names = new String[MAX_SPANS];
+    private final long[] starts = new long[MAX_SPANS];
+    private final long[] ends = new long[MAX_SPANS];
+    private final int[] depths = new int[MAX_SPANS];
+    private boolean active;
+    private int size;
+    private int depth;
+    private int droppedSpans;
+    private long startNanos;
+    private String method = "";
+    private String uri = "";
+
+    private RequestTrace() {
+    }
+
+    public static RequestTrace begin(String method, String uri, long startNanos) {
+        RequestTrace trace = TRACES.get();
+        trace.active = true;
+        trace.size = 0;
+        trace.depth = 0;
+        trace.droppedSpans = 0;
+        trace.startNanos = startNanos;
+        trace.method = method;
+        trace.uri = uri;
+        return trace;
+    }
+
+    @Nullable
+    public static RequestTrace current() {
+        RequestTrace trace = TRACES.get();
+        return trace.active ? trace : null;
+    }
+
+    /**
+     * Closes the spans left open and detaches the trace from the thread; it stays readable until the thread begins
+     * the next one.
+     */
+    public void end(long endNanos) {
+        for (int i = size - 1; i >= 0 && depth > 0; i--) {
+            if (ends[i] == 0) {
+                ends[i] = endNanos;
+                depth--;
+            }
+        }
+        active = false;
+    }
+
+    public int enter(String name) {
+        return enter(name, System.nanoTime());
+    }
+
+    /**
+     * @return span index for {@link #exit(int)}, -1 when the trace is full
+     */
+    public int enter(String name, long nanos) {
+        if (size == MAX_SPANS) {
+            droppedSpans++;
+            return -1;
+        }
+        int index = size++;
+        names[index] = name;
+        starts[index] = nanos;
+        ends[index] = 0;
+        depths[index] = depth++;
+        return index;
+    }
+
+    public void exit(int index) {
+        exit(index, System.nanoTime());
+    }
+
+    public void exit(int index, long nanos) {
+        if (index >= 0 && index < size && ends[index] == 0) {
+            ends[index] = Math.max(nanos, starts[index] + 1);
+            depth--;
+        }
+    }
+
+    /**
+     * Closes the most recent open span entered with this very name instance, for callers that cannot keep the index.
+     */
+    public void exit(String name) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (ends[i] == 0 && names[i] == name) {
+                exit(i);
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public long getStartNanos(int index) {
+        return starts[index];
+    }
+
+    public long getEndNanos(int index) {
+        return ends[index];
+    }
+
+    public int getDepth(int index) {
+        return depths[index];
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+}
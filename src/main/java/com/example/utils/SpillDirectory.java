@@ -0,0 +1,122 @@
+package com.example.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Local overflow for data that could not be shipped. Each spilled batch is appended to the current segment file as
+ * its own gzip member, so a segment stays readable after every batch; segments are replayed oldest first and
+ * deleted once replayed. Spilling stops at {@code maxBytes} on disk. Owned by a single thread, only {@link #bytes()}
+ * may be read by others.
+ */
+public final class SpillDirectory {
+
+    static final String PREFIX = "spill-";
+    static final String SUFFIX = ".gz";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private volatile long bytes;
+    private int sequence;
+    private Path segment;
+
+    public SpillDirectory(Path directory, long maxBytes, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        for (Path file : segments()) {
+            bytes += Files.size(file);
+        }
+        this.segment = nextSegment();
+    }
+
+    /**
+     * @return false when the directory is full and the batch was not written
+     */
+    public boolean spill(byte[] batch, int offset, int length) throws IOException {
+        if (bytes >= maxBytes) {
+            return false;
+        }
+        if (Files.exists(segment) && Files.size(segment) >= segmentBytes) {
+            segment = nextSegment();
+        }
+        long before = Files.exists(segment) ? Files.size(segment) : 0;
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(segment, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND))) {
+            out.write(batch, offset, length);
+        }
+        bytes += Files.size(segment) - before;
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return bytes == 0;
+    }
+
+    /**
+     * Bytes spilled and not yet replayed.
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Hands the content of each segment, oldest first, to the sink and deletes the segment once the sink returns;
+     * stops at the first segment the sink fails on, which is kept for the next replay.
+     */
+    public void replay(Sink sink) throws IOException {
+        for (Path file : segments()) {
+            if (file.equals(segment)) {
+                segment = nextSegment();
+            }
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                in.transferTo(content);
+            } catch (EOFException | ZipException e) {
+                // segment cut short by a crash, replay the members read so far
+            }
+            sink.accept(content.toByteArray());
+            delete(file);
+        }
+    }
+
+    private void delete(Path file) throws IOException {
+        long size = Files.size(file);
+        Files.delete(file);
+        bytes = Math.max(0, bytes - size);
+    }
+
+    private Path nextSegment() {
+        return directory.resolve(String.format("%s%013d-%06d%s", PREFIX, System.currentTimeMillis(),
+                sequence++ % 1_000_000, SUFFIX));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(byte[] content) throws IOException;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.tests;
+
+import com.example.component.AccessLog;
+import com.example.utils.AccessLogDecoder;
+import com.example.utils.AccessLogFiles;
+import com.example.utils.AccessLogRing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAreDecodedToJsonLines() throws Exception {
+        AccessLog accessLog = new AccessLog(directory, 1024, 1 << 20, 2);
+        accessLog.start();
+        long start = System.nanoTime();
+        accessLog.record(start, 1_234_567L, "GET", 200, "/table.xhtml", -1, 5120);
+        accessLog.record(start, 7_654_321L, "POST", 302, "/login", 42, -1);
+        accessLog.record(start, 1_000L, "GET", 304, "/i18n/{lang}", -1, -1);
+        accessLog.stop();
+
+        List<Path> files = AccessLogFiles.list(directory);
+        assertThat(files).hasSize(1);
+        StringBuilder json = new StringBuilder();
+        AccessLogDecoder.decode(files.get(0), json);
+        assertThat(json.toString().replaceAll("\"time\":\"\\d{4}-\\d{2}-\\d{2}T[0-9:.]+Z\"", "\"time\":\"now\"")
+                .split("\n")).containsExactly(
+                "{\"time\":\"now\",\"method\":\"GET\",\"uri\":\"/table.xhtml\",\"status\":200,"
+                        + "\"durationNanos\":1234567,\"requestBytes\":-1,\"responseBytes\":5120}",
+                "{\"time\":\"now\",\"method\":\"POST\",\"uri\":\"/login\",\"status\":302,"
+                        + "\"durationNanos\":7654321,\"requestBytes\":42,\"responseBytes\":-1}",
+                "{\"time\":\"now\",\"method\":\"GET\",\"uri\":\"/i18n/{lang}\",\"status\":304,"
+                        + "\"durationNanos\":1000,\"requestBytes\":-1,\"responseBytes\":-1}");
+        assertThat(accessLog.getDropped()).isZero();
+    }
+
+    @Test
+    void filesRotateAndEachOneIsSelfContained() throws Exception {
+        AccessLog accessLog = new AccessLog(directory, 1024, 2048, 3);
+        accessLog.start();
+        for (int i = 0; i < 200; i++) {
+            accessLog.record(i, i, "GET", 200, "/table.xhtml", -1, -1);
+        }
+        accessLog.stop();
+
+        List<Path> files = AccessLogFiles.list(directory);
+        assertThat(files).hasSize(3);
+        StringBuilder json = new StringBuilder();
+        AccessLogDecoder.decode(files.get(2), json);
+        String[] lines = json.toString().split("\n");
+        assertThat(lines).allMatch(line -> line.contains("\"uri\":\"/table.xhtml\""));
+        assertThat(lines[lines.length - 1]).contains("\"durationNanos\":199,");
+    }
+
+    @Test
+    void burstUpToCapacityIsNotLost() {
+        AccessLogRing ring = new AccessLogRing(8);
+        for (int i = 0; i < 8; i++) {
+            assertThat(ring.offer(i, i, 0, 0, AccessLogRing.pack(200, 1, 0))).isTrue();
+        }
+        assertThat(ring.offer(8, 8, 0, 0, 0)).isFalse();
+        assertThat(ring.dropped()).isEqualTo(1);
+
+        long[] durations = new long[8];
+        int[] count = {0};
+        assertThat(ring.drain((start, duration, requestBytes, responseBytes, attributes) ->
+                durations[count[0]++] = duration, 100)).isEqualTo(8);
+        assertThat(durations).containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(ring.offer(9, 9, 0, 0, 0)).isTrue();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.tests;
+
+import com.example.utils.BoundedKeys;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedKeysTest {
+
+    @Test
+    void keysBeyondTheLimitShareTheOverflowValue() {
+        AtomicInteger created = new AtomicInteger();
+        BoundedKeys<String, Integer> keys = new BoundedKeys<>(3, key -> BoundedKeys.OTHER, key -> created.getAndIncrement());
+
+        assertThat(keys.get("/home")).isZero();
+        assertThat(keys.get("/table.xhtml")).isEqualTo(1);
+        assertThat(keys.get("/login")).isEqualTo(2);
+        for (int i = 0; i < 100; i++) {
+            assertThat(keys.get("/random-" + i)).isEqualTo(3);
+        }
+        assertThat(keys.get("/home")).isZero();
+
+        assertThat(keys.size()).isEqualTo(4);
+        assertThat(created).hasValue(4);
+    }
+
+    @Test
+    void concurrentLookupsCreateEachValueOnce() throws InterruptedException {
+        AtomicInteger created = new AtomicInteger();
+        BoundedKeys<Integer, Integer> keys = new BoundedKeys<>(64, key -> -1, key -> created.incrementAndGet());
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    keys.get(i % 200);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(keys.size()).isEqualTo(65);
+        assertThat(created).hasValue(65);
+    }
+}
@@ -1,19 +1,36 @@
 package com.example.tests;
 
 import com.example.component.DbMessageSource;
+import com.example.component.ExecutionTimeLogger;
+import com.example.component.LocaleFallbacks;
+import com.example.component.MessageCatalog;
+import com.example.component.MessageTemplateCache;
 import com.example.entity.Message;
 import com.example.repository.MessagesRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.validation.FieldError;
 
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 class DbMessageSourceTest {
@@ -105,4 +122,162 @@ class DbMessageSourceTest {
         assertThat(resolvedMessage).isEqualTo("some message");
     }
 
+    @Test
+    void testMessageFromCatalog() {
+        MessagesRepository repository = mock(MessagesRepository.class);
+        given(repository.findAll()).willReturn(List.of(new Message(1L, "eng", "key", "text")));
+        MessageCatalog catalog = new MessageCatalog(repository);
+        catalog.refresh();
+
+        DbMessageSource dbMessageSource = new DbMessageSource(repository, catalog);
+
+        assertThat(dbMessageSource.getMessage("key", null, Locale.ENGLISH)).isEqualTo("text");
+        assertThat(dbMessageSource.getMessage("key", null, Locale.FRANCE)).isEqualTo("key");
+        verify(repository, never()).findByKeyAndLang(any(), any());
+    }
+
+    @Test
+    void testFallbackChain() {
+        MessagesRepository repository = mock(MessagesRepository.class);
+        given(repository.findAll()).willReturn(List.of(
+                new Message(1L, "eng", "hello.text", "hello word"),
+                new Message(2L, "eng", "menu.table", "table"),
+                new Message(3L, "pol", "hello.text", "witaj świecie")));
+        MessageCatalog catalog = new MessageCatalog(repository);
+        catalog.refresh();
+
+        DbMessageSource dbMessageSource = new DbMessageSource(repository, new MessageTemplateCache(), catalog,
+                fallbacks(), new SimpleMeterRegistry());
+
+        Locale polish = Locale.forLanguageTag("pl-PL");
+        assertThat(dbMessageSource.getMessage("hello.text", null, polish)).isEqualTo("witaj świecie");
+        assertThat(dbMessageSource.getMessage("menu.table", null, polish)).isEqualTo("table");
+        assertThat(dbMessageSource.getMessage("menu.table", null, Locale.FRANCE)).isEqualTo("table");
+        assertThat(dbMessageSource.getMessage("hello.text", null, Locale.GERMANY)).isEqualTo("hello word");
+    }
+
+    @Test
+    void testMissingKeyIsResolvedOnce() {
+        MessagesRepository repository = mock(MessagesRepository.class);
+        given(repository.findByKeyAndLang("hello.foo", "pol")).willReturn(Optional.empty());
+        given(repository.findByKeyAndLang("hello.foo", "eng")).willReturn(Optional.empty());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        DbMessageSource dbMessageSource = new DbMessageSource(repository, new MessageTemplateCache(), null,
+                fallbacks(), registry);
+
+        Locale polish = Locale.forLanguageTag("pl-PL");
+        assertThat(dbMessageSource.getMessage("hello.foo", null, polish)).isEqualTo("hello.foo");
+        assertThat(dbMessageSource.getMessage("hello.foo", null, polish)).isEqualTo("hello.foo");
+        assertThat(dbMessageSource.getMessage("hello.foo", null, "default", polish)).isEqualTo("default");
+
+        verify(repository, times(1)).findByKeyAndLang("hello.foo", "pol");
+        verify(repository, times(1)).findByKeyAndLang("hello.foo", "eng");
+        assertThat(registry.get("i18n.messages.missing").tag("locale", "pl-PL").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testMissingKeysAreForgottenOnCatalogChange() {
+        MessagesRepository repository = mock(MessagesRepository.class);
+        given(repository.findAll())
+                .willReturn(List.of(new Message(1L, "eng", "hello.text", "hello word")))
+                .willReturn(List.of(new Message(1L, "eng", "hello.text", "hello word"),
+                        new Message(2L, "eng", "hello.foo", "foo")));
+        MessageCatalog catalog = new MessageCatalog(repository);
+        catalog.refresh();
+
+        DbMessageSource dbMessageSource = new DbMessageSource(repository, catalog);
+        assertThat(dbMessageSource.getMessage("hello.foo", null, Locale.ENGLISH)).isEqualTo("hello.foo");
+
+        catalog.refresh();
+        assertThat(dbMessageSource.getMessage("hello.foo", null, Locale.ENGLISH)).isEqualTo("foo");
+    }
+
+    @Test
+    void testBatchResolutionFromRepository() {
+        MessagesRepository repository = mock(MessagesRepository.class);
+        given(repository.findByKeyInAndLang(List.of("hello.text", "menu.table", "hello.foo"), "pol"))
+                .willReturn(List.of(new Message(1L, "pol", "hello.text", "witaj świecie")));
+        given(repository.findByKeyInAndLang(List.of("menu.table", "hello.foo"), "eng"))
+                .willReturn(List.of(new Message(2L, "eng", "menu.table", "table")));
+
+        DbMessageSource dbMessageSource = new DbMessageSource(repository, new MessageTemplateCache(), null,
+                fallbacks(), new SimpleMeterRegistry());
+
+        Locale polish = Locale.forLanguageTag("pl-PL");
+        assertThat(dbMessageSource.getMessages(List.of("hello.text", "menu.table", "hello.foo"), polish))
+                .containsOnly(Map.entry("hello.text", "witaj świecie"), Map.entry("menu.table", "table"));
+        assertThat(dbMessageSource.getMessage("hello.foo", null, polish)).isEqualTo("hello.foo");
+        assertThat(dbMessageSource.getMessage("menu.table", null, polish)).isEqualTo("table");
+        verify(repository, never()).findByKeyAndLang(any(), any());
+    }
+
+    @Test
+    void testAllMessagesSnapshot() {
+        MessagesRepository repository = mock(MessagesRepository.class);
+        given(repository.findAll()).willReturn(List.of(
+                new Message(1L, "eng", "hello.text", "hello word"),
+                new Message(2L, "eng", "menu.table", "table"),
+                new Message(3L, "pol", "hello.text", "witaj świecie")));
+        MessageCatalog catalog = new MessageCatalog(repository);
+        catalog.refresh();
+
+        DbMessageSource dbMessageSource = new DbMessageSource(repository, new MessageTemplateCache(), catalog,
+                fallbacks(), new SimpleMeterRegistry());
+
+        Locale polish = Locale.forLanguageTag("pl-PL");
+        Map<String, String> all = dbMessageSource.getAllMessages(polish);
+        assertThat(all).containsOnly(Map.entry("hello.text", "witaj świecie"), Map.entry("menu.table", "table"));
+        assertThat(dbMessageSource.getAllMessages(polish)).isSameAs(all);
+    }
+
+    private static LocaleFallbacks fallbacks() {
+        LocaleFallbacks fallbacks = new LocaleFallbacks();
+        fallbacks.setChains(Map.of("pl-PL", List.of("pol", "eng")));
+        fallbacks.setDefaultLang("eng");
+        return fallbacks;
+    }
+
+    @Test
+    void onlyRepositoryLoadsAreTimed() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TimedConfig.class)) {
+            DbMessageSource messageSource = context.getBean(DbMessageSource.class);
+            MessagesRepository repository = context.getBean(MessagesRepository.class);
+            // stubbing calls the repository through its proxy once
+            given(repository.findByKeyAndLang("key", "eng")).willReturn(Optional.of(new Message(1L, "eng", "key", "text")));
+
+            for (int i = 0; i < 3; i++) {
+                assertThat(messageSource.getMessage("key", null, Locale.ENGLISH)).isEqualTo("text");
+            }
+
+            assertThat(AopUtils.isAopProxy(messageSource)).isFalse();
+            assertThat(context.getBean(MeterRegistry.class).get(MessagesRepository.class.getName() + ".findByKeyAndLang")
+                    .timer().count()).isEqualTo(2);
+        }
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    static class TimedConfig {
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public ExecutionTimeLogger executionTimeLogger(MeterRegistry registry) {
+            return new ExecutionTimeLogger(registry);
+        }
+
+        @Bean
+        public MessagesRepository messagesRepository() {
+            return mock(MessagesRepository.class);
+        }
+
+        @Bean
+        public DbMessageSource messageSource(MessagesRepository messagesRepository) {
+            return new DbMessageSource(messagesRepository);
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package com.example.tests;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.example.component.DebugLogFilter;
+import com.example.component.DebugLogRules;
+import com.example.component.RequestDebugTurboFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DebugLogTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger appLogger = loggerContext.getLogger("com.example.component.LoggingContextFilter");
+    private final Logger otherLogger = loggerContext.getLogger("org.hibernate.SQL");
+    private final MutableClock clock = new MutableClock();
+    private final DebugLogRules rules = new DebugLogRules("X-Debug-Log", Duration.ofHours(1), clock);
+    private final DebugLogFilter filter = new DebugLogFilter(rules);
+
+    @BeforeEach
+    void setUp() {
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        RequestDebugTurboFilter turboFilter = new RequestDebugTurboFilter();
+        turboFilter.start();
+        loggerContext.addTurboFilter(turboFilter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDebugTurboFilter.end();
+    }
+
+    @Test
+    void headerRuleEnablesDebugForTheSelectedLoggersOfThatRequestOnly() throws Exception {
+        DebugLogRules.Rule rule = rules.add(DebugLogRules.Type.HEADER, null, 0.0, List.of("com.example"),
+                Duration.ofMinutes(5));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/table.xhtml");
+        request.addHeader("X-Debug-Log", rule.getId());
+        List<Boolean> debug = new ArrayList<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            debug.add(appLogger.isDebugEnabled());
+            debug.add(otherLogger.isDebugEnabled());
+            debug.add(appLogger.isTraceEnabled());
+            debug.add(rule.getId().equals(MDC.get("debug")));
+        });
+
+        assertThat(debug).containsExactly(true, false, false, true);
+        assertThat(rule.getMatched()).isEqualTo(1);
+        assertThat(appLogger.isDebugEnabled()).isFalse();
+        assertThat(MDC.get("debug")).isNull();
+        assertThat(debugDuring(new MockHttpServletRequest("GET", "/table.xhtml"))).isFalse();
+    }
+
+    @Test
+    void userRuleMatchesTheUserOfTheSession() throws Exception {
+        rules.add(DebugLogRules.Type.USER, "admin", 0.0, List.of("com.example"), Duration.ofMinutes(5));
+
+        assertThat(debugDuring(requestOf("admin"))).isTrue();
+        assertThat(debugDuring(requestOf("user"))).isFalse();
+        assertThat(debugDuring(new MockHttpServletRequest("GET", "/table.xhtml"))).isFalse();
+    }
+
+    @Test
+    void rulesExpire() throws Exception {
+        rules.add(DebugLogRules.Type.SAMPLE, null, 1.0, List.of("com.example"), Duration.ofHours(5));
+        assertThat(rules.getRules()).singleElement()
+                .satisfies(rule -> assertThat(rule.getExpires()).isEqualTo(clock.instant().plus(Duration.ofHours(1))));
+        assertThat(debugDuring(new MockHttpServletRequest("GET", "/table.xhtml"))).isTrue();
+
+        clock.advance(Duration.ofHours(1));
+
+        assertThat(debugDuring(new MockHttpServletRequest("GET", "/table.xhtml"))).isFalse();
+        assertThat(rules.getRules()).isEmpty();
+    }
+
+    @Test
+    void rulesCanBeRemoved() {
+        DebugLogRules.Rule rule = rules.add(DebugLogRules.Type.SAMPLE, null, 0.5, List.of("com.example"),
+                Duration.ofMinutes(5));
+
+        assertThat(rules.remove(rule.getId())).isTrue();
+        assertThat(rules.remove(rule.getId())).isFalse();
+        assertThat(rules.getRules()).isEmpty();
+    }
+
+    @Test
+    void invalidRulesAreRejected() {
+        assertThatThrownBy(() -> rules.add(DebugLogRules.Type.USER, " ", 0.0, List.of("com.example"),
+                Duration.ofMinutes(5))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> rules.add(DebugLogRules.Type.SAMPLE, null, 1.5, List.of("com.example"),
+                Duration.ofMinutes(5))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> rules.add(DebugLogRules.Type.HEADER, null, 0.0, List.of(),
+                Duration.ofMinutes(5))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private boolean debugDuring(MockHttpServletRequest request) throws Exception {
+        boolean[] debug = new boolean[1];
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> debug[0] = appLogger.isDebugEnabled());
+        return debug[0];
+    }
+
+    private static MockHttpServletRequest requestOf(String userName) {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(userName, "secret", List.of())));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/table.xhtml");
+        request.setSession(session);
+        return request;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2023-11-14T22:13:20Z");
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.tests;
+
+import com.example.component.DeltaSessionRepository;
+import com.example.view.TableView;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.session.Session;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.example.tests.SessionTable.login;
+import static com.example.tests.SessionTable.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class DeltaSessionRepositoryTest {
+
+    private static final String PRINCIPAL = "{\"authorities\":[{\"authority\":\"ROLE_USER\"}],\"authenticated\":true,\"name\":\"user\"}";
+    private static final String VIEW_STATE = "com.sun.faces.renderkit.ServerSideStateHelper.LogicalViewMap";
+
+    private final SessionTable table = new SessionTable();
+    private final ConversionService conversionService = SessionTable.conversionService();
+    private final JdbcIndexedSessionRepository jdbcRepository = table.jdbcRepository(conversionService);
+    private final DeltaSessionRepository<?> deltaRepository = new DeltaSessionRepository<>(jdbcRepository, conversionService);
+
+    @Test
+    void attributesSetToEqualValuesAreNotUpdated() {
+        String id = login(deltaRepository);
+
+        for (int i = 0; i < 10; i++) {
+            request(deltaRepository, id, session -> session.setAttribute("principal", PRINCIPAL));
+        }
+
+        assertThat(table.attributeUpdates).isZero();
+        assertThat(deltaRepository.getSkipped()).isEqualTo(9);
+        assertThat(deltaRepository.getWritten()).isEqualTo(2);
+    }
+
+    @Test
+    void changedAttributesAreWrittenOnce() {
+        String id = login(deltaRepository);
+        request(deltaRepository, id, session -> session.setAttribute("principal", PRINCIPAL));
+        table.reset();
+
+        request(deltaRepository, id, session -> {
+            session.setAttribute("principal", "changed");
+            session.setAttribute("principal", PRINCIPAL + " ");
+            session.setAttribute("locale", "fr");
+        });
+
+        assertThat(table.attributeUpdates).isEqualTo(1);
+        assertThat(table.attributeInserts).isEqualTo(1);
+        assertThat(table.attribute(id, "principal")).isEqualTo(conversionService.convert(PRINCIPAL + " ",
+                TypeDescriptor.valueOf(Object.class), TypeDescriptor.valueOf(byte[].class)));
+        request(deltaRepository, id, session -> {
+            assertThat(session.<String>getAttribute("principal")).isEqualTo(PRINCIPAL + " ");
+            assertThat(session.getAttributeNames()).containsExactlyInAnyOrder("principal", "SPRING_SECURITY_CONTEXT", "locale");
+        });
+    }
+
+    @Test
+    void removedAttributesAreDeleted() {
+        String id = login(deltaRepository);
+        request(deltaRepository, id, session -> session.setAttribute("principal", PRINCIPAL));
+
+        request(deltaRepository, id, session -> {
+            session.setAttribute("principal", PRINCIPAL + " ");
+            session.setAttribute("principal", null);
+        });
+
+        assertThat(table.attributeDeletes).isEqualTo(1);
+        assertThat(table.attribute(id, "principal")).isNull();
+        request(deltaRepository, id, session -> assertThat(session.<Object>getAttribute("principal")).isNull());
+    }
+
+    @Test
+    void homeRequestsNoLongerUpdateThePrincipal() {
+        String before = login(jdbcRepository);
+        for (int i = 0; i < 10; i++) {
+            request(jdbcRepository, before, session -> session.setAttribute("principal", PRINCIPAL));
+        }
+        int updatesBefore = table.attributeUpdates;
+        table.reset();
+        String after = login(deltaRepository);
+        for (int i = 0; i < 10; i++) {
+            request(deltaRepository, after, session -> session.setAttribute("principal", PRINCIPAL));
+        }
+
+        assertThat(updatesBefore).isEqualTo(9);
+        assertThat(table.attributeUpdates).isZero();
+    }
+
+    @Test
+    void tableRequestsUpdateOnlyTheViewState() {
+        String before = login(jdbcRepository);
+        for (int i = 0; i < 10; i++) {
+            request(jdbcRepository, before, tableRequest(i));
+        }
+        int updatesBefore = table.attributeUpdates;
+        table.reset();
+        String after = login(deltaRepository);
+        for (int i = 0; i < 10; i++) {
+            request(deltaRepository, after, tableRequest(i));
+        }
+
+        assertThat(updatesBefore).isEqualTo(18);
+        assertThat(table.attributeUpdates).isEqualTo(9);
+    }
+
+    /**
+     * The session scoped {@link TableView} is set again by every request using it, the JSF state with a new view.
+     */
+    private static Consumer<Session> tableRequest(int request) {
+        return session -> {
+            TableView tableView = session.getAttribute("scopedTarget.tableView");
+            session.setAttribute("scopedTarget.tableView", tableView == null ? new TableView() : tableView);
+            Map<String, Object> views = new LinkedHashMap<>();
+            views.put("-" + request, new Object[]{"j_id1", "table"});
+            session.setAttribute(VIEW_STATE, views);
+        };
+    }
+}
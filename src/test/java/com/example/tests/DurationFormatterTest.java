@@ -0,0 +1,35 @@
+package com.example.tests;
+
+import com.example.utils.DurationFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DurationFormatterTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 00:00:00.000ms 000us 000ns",
+            "7, 00:00:00.000ms 000us 007ns",
+            "100200300, 00:00:00.100ms 200us 300ns",
+            "12345678901, 00:00:12.345ms 678us 901ns",
+            "3599999999999, 00:59:59.999ms 999us 999ns",
+            "90061001001001, 25:01:01.001ms 001us 001ns",
+            "-1234567, -00:00:00.001ms 234us 567ns",
+            "9223372036854775807, 2562047:47:16.854ms 775us 807ns",
+            "-9223372036854775808, -2562047:47:16.854ms 775us 808ns"
+    })
+    void format(long nanos, String expected) {
+        assertThat(DurationFormatter.format(nanos)).isEqualTo(expected);
+    }
+
+    @Test
+    void formatToAppends() {
+        StringBuilder out = new StringBuilder("time: ");
+
+        assertThat(DurationFormatter.formatTo(out, 1_000_000_000L)).isSameAs(out)
+                .hasToString("time: 00:00:01.000ms 000us 000ns");
+    }
+}
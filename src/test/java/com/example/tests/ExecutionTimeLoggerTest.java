@@ -2,16 +2,24 @@ package com.example.tests;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.annotation.TimedMethod;
 import com.example.component.ExecutionTimeLogger;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class ExecutionTimeLoggerTest {
     @Test
@@ -65,4 +73,88 @@ class ExecutionTimeLoggerTest {
         root.setLevel(Level.INFO);
     }
 
+    @Test
+    void timerIsResolvedOncePerMethod() throws Throwable {
+        Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.OFF);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExecutionTimeLogger executionTimeLogger = new ExecutionTimeLogger(registry);
+        ProceedingJoinPoint joinPoint = Mockito.mock(ProceedingJoinPoint.class);
+        MethodSignature signature = Mockito.mock(MethodSignature.class);
+
+        given(signature.getMethod()).willReturn(Object.class.getMethod("toString"));
+        given(signature.getName()).willReturn("toString");
+        given(signature.getDeclaringTypeName()).willReturn(Object.class.getName());
+        given(joinPoint.getSignature()).willReturn(signature);
+        given(joinPoint.proceed()).willReturn("result");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(executionTimeLogger.around(joinPoint)).isEqualTo("result");
+        }
+
+        assertThat(registry.get("java.lang.Object.toString").tag("method", "toString").timer().count()).isEqualTo(3);
+        verify(signature, times(1)).getDeclaringTypeName();
+        verify(joinPoint, times(0)).getArgs();
+
+        root.setLevel(Level.INFO);
+    }
+
+    @Test
+    void fastCallsBelowThresholdAreNotLogged() throws Throwable {
+        Logger logger = (Logger) LoggerFactory.getLogger(ExecutionTimeLogger.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            ExecutionTimeLogger executionTimeLogger = new ExecutionTimeLogger(new SimpleMeterRegistry());
+            executionTimeLogger.around(joinPoint("onlySlowCalls"));
+            executionTimeLogger.around(joinPoint("everyCall"));
+
+            assertThat(appender.list).extracting(ILoggingEvent::getArgumentArray)
+                    .extracting(args -> args[1]).containsExactly("everyCall");
+        } finally {
+            logger.detachAppender(appender);
+        }
+    }
+
+    @Test
+    void histogramInsteadOfPercentiles() throws Throwable {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        ExecutionTimeLogger executionTimeLogger = new ExecutionTimeLogger(registry);
+
+        executionTimeLogger.around(joinPoint("onlySlowCalls"));
+        executionTimeLogger.around(joinPoint("everyCall"));
+
+        assertThat(registry.scrape())
+                .contains("onlySlowCalls_seconds_bucket{")
+                .doesNotContain("onlySlowCalls_seconds{")
+                .contains("everyCall_seconds{")
+                .doesNotContain("everyCall_seconds_bucket{");
+    }
+
+    private static ProceedingJoinPoint joinPoint(String methodName) throws Throwable {
+        ProceedingJoinPoint joinPoint = Mockito.mock(ProceedingJoinPoint.class);
+        MethodSignature signature = Mockito.mock(MethodSignature.class);
+        given(signature.getMethod()).willReturn(TimedService.class.getMethod(methodName));
+        given(signature.getName()).willReturn(methodName);
+        given(signature.getDeclaringTypeName()).willReturn(TimedService.class.getName());
+        given(joinPoint.getSignature()).willReturn(signature);
+        given(joinPoint.getTarget()).willReturn(new TimedService());
+        given(joinPoint.proceed()).willReturn("result");
+        return joinPoint;
+    }
+
+    @TimedMethod
+    static class TimedService {
+        @TimedMethod(logAboveMillis = 60_000, logSampleRate = 0, percentiles = {}, histogram = true)
+        public String onlySlowCalls() {
+            return "result";
+        }
+
+        public String everyCall() {
+            return "result";
+        }
+    }
+
 }
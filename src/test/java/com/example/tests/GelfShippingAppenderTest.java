@@ -0,0 +1,183 @@
+package com.example.tests;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.component.GelfShippingAppender;
+import com.example.component.LoggingContextFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GelfShippingAppenderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger logger = loggerContext.getLogger("com.example.security.AuthDetailsService");
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GelfShippingAppender appender = new GelfShippingAppender();
+
+    @TempDir
+    Path spillDirectory;
+
+    @AfterEach
+    void stopAppender() {
+        appender.stop();
+    }
+
+    @Test
+    void eventsAreShippedAsNullDelimitedGelfFrames() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            start(server.getLocalPort(), "com.example.security");
+
+            LoggingEvent event = new LoggingEvent(GelfShippingAppenderTest.class.getName(), logger, Level.WARN, "user {} \"locked\"",
+                    new IllegalStateException("boom"), new Object[]{"admin"});
+            event.setMDCPropertyMap(Map.of("rid", "abc"));
+            appender.doAppend(event);
+            appender.doAppend(new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "second", null, null));
+
+            List<JsonNode> messages = readFrames(server, 2);
+            JsonNode first = messages.get(0);
+            assertThat(first.get("version").asText()).isEqualTo("1.1");
+            assertThat(first.get("short_message").asText()).isEqualTo("user admin \"locked\"");
+            assertThat(first.get("full_message").asText()).contains("IllegalStateException: boom");
+            assertThat(first.get("level").asInt()).isEqualTo(4);
+            assertThat(first.get("_rid").asText()).isEqualTo("abc");
+            assertThat(first.get("_app").asText()).isEqualTo("demo-spring-jsf");
+            assertThat(first.get("_logger").asText()).isEqualTo(logger.getName());
+            assertThat(first.has("_line")).isTrue();
+            assertThat(messages.get(1).get("short_message").asText()).isEqualTo("second");
+        }
+        appender.stop();
+        assertThat(appender.getSent()).isEqualTo(2);
+        assertThat(appender.getDropped()).isZero();
+    }
+
+    @Test
+    void eventsOfARequestCarryItsSessionAndUser() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            start(server.getLocalPort(), "");
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/table.xhtml");
+            MockHttpSession session = new MockHttpSession(null, "session-1");
+            session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                    new SecurityContextImpl(new UsernamePasswordAuthenticationToken("user", "user")));
+            request.setSession(session);
+
+            new LoggingContextFilter(false).doFilter(request, new MockHttpServletResponse(), (req, res) ->
+                    appender.doAppend(new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "in request", null, null)));
+
+            JsonNode message = readFrames(server, 1).get(0);
+            assertThat(message.get("_sid").asText()).isEqualTo("session-1");
+            assertThat(message.get("_userName").asText()).isEqualTo("user");
+        }
+    }
+
+    @Test
+    void eventsOfAnonymousRequestsCarryNoUser() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            start(server.getLocalPort(), "");
+
+            new LoggingContextFilter(false).doFilter(new MockHttpServletRequest("GET", "/index.xhtml"),
+                    new MockHttpServletResponse(), (req, res) -> appender.doAppend(
+                            new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "anonymous", null, null)));
+
+            JsonNode message = readFrames(server, 1).get(0);
+            assertThat(message.get("_userName").asText()).isEqualTo("{no user}");
+            assertThat(message.has("_sid")).isFalse();
+        }
+    }
+
+    @Test
+    void eventsAreSpilledWhileTheInputIsDownAndReplayedLater() throws Exception {
+        int port;
+        try (ServerSocket unused = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            port = unused.getLocalPort();
+        }
+        start(port, "");
+
+        appender.doAppend(new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "spilled", null, null));
+        awaitSpilled();
+        assertThat(appender.getSpillBytes()).isPositive();
+
+        try (ServerSocket server = new ServerSocket()) {
+            server.setReuseAddress(true);
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            appender.doAppend(new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "live", null, null));
+
+            List<JsonNode> messages = readFrames(server, 2);
+            assertThat(messages).extracting(message -> message.get("short_message").asText())
+                    .containsExactly("spilled", "live");
+            assertThat(messages.get(0).has("_line")).isFalse();
+        }
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+        assertThat(appender.getSpillBytes()).isZero();
+    }
+
+    private void start(int port, String callerDataLoggers) {
+        appender.setContext(loggerContext);
+        appender.setName("gelf");
+        appender.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        appender.setPort(port);
+        appender.setFlushIntervalMillis(10);
+        appender.setConnectTimeoutMillis(200);
+        appender.setReconnectDelayMillis(20);
+        appender.setSpillDirectory(spillDirectory.toString());
+        appender.setCallerDataLoggers(callerDataLoggers);
+        appender.setAdditionalFields("app=demo-spring-jsf");
+        appender.start();
+        assertThat(appender.isStarted()).isTrue();
+    }
+
+    private void awaitSpilled() throws InterruptedException {
+        for (int i = 0; i < 500 && appender.getSpilled() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(appender.getSpilled()).isEqualTo(1);
+    }
+
+    private List<JsonNode> readFrames(ServerSocket server, int count) throws IOException {
+        server.setSoTimeout(5000);
+        List<JsonNode> messages = new ArrayList<>();
+        try (Socket socket = server.accept()) {
+            socket.setSoTimeout(5000);
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            while (messages.size() < count) {
+                int b = in.read();
+                assertThat(b).isNotNegative();
+                if (b == 0) {
+                    messages.add(objectMapper.readTree(frame.toByteArray()));
+                    frame.reset();
+                } else {
+                    frame.write(b);
+                }
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.tests;
+
+import com.example.component.I18nBundles;
+import com.example.component.LocaleFallbacks;
+import com.example.component.MessageBundleSource;
+import com.example.component.MessageCatalog;
+import com.example.controller.I18nController;
+import com.example.utils.MessageTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class I18nControllerTest {
+
+    private static final Locale POLISH = Locale.forLanguageTag("pl-PL");
+
+    private MessageBundleSource messageSource;
+    private MessageCatalog catalog;
+    private I18nBundles bundles;
+    private I18nController controller;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = mock(MessageBundleSource.class);
+        catalog = mock(MessageCatalog.class);
+        given(catalog.getVersion()).willReturn(1L);
+        given(catalog.getTemplates("pol")).willReturn(Map.of("hello.text", MessageTemplate.compile("witaj świecie")));
+        given(messageSource.getAllMessages(any())).willReturn(Map.of("hello.text", "witaj świecie", "menu.table", "tabela"));
+        LocaleFallbacks fallbacks = new LocaleFallbacks();
+        fallbacks.setChains(Map.of("pl-PL", List.of("pol", "eng")));
+        fallbacks.setDefaultLang("eng");
+        bundles = new I18nBundles(messageSource, catalog, new ObjectMapper(), fallbacks);
+        controller = new I18nController(bundles);
+    }
+
+    @Test
+    void bundleIsSerializedOncePerCatalogVersion() {
+        I18nBundles.Bundle bundle = bundles.get(POLISH);
+
+        assertThat(new String(bundle.getJson(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"hello.text\":\"witaj świecie\",\"menu.table\":\"tabela\"}");
+        assertThat(bundles.get(POLISH)).isSameAs(bundle);
+
+        given(catalog.getVersion()).willReturn(2L);
+        assertThat(bundles.get(POLISH)).isNotSameAs(bundle)
+                .extracting(I18nBundles.Bundle::getVersion).isEqualTo(bundle.getVersion());
+        verify(messageSource, times(2)).getAllMessages(any());
+    }
+
+    @Test
+    void gzippedBundle() throws IOException {
+        ResponseEntity<byte[]> response = controller.bundle("pl-PL", null, null, "gzip, deflate");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("public, no-cache");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertThat(in.readAllBytes()).isEqualTo(bundles.get(POLISH).getJson());
+        }
+    }
+
+    @Test
+    void notModified() {
+        ResponseEntity<byte[]> first = controller.bundle("pl-PL", null, null, null);
+        String eTag = first.getHeaders().getETag();
+
+        ResponseEntity<byte[]> second = controller.bundle("pl-PL", null, eTag, null);
+
+        assertThat(first.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(second.getBody()).isNull();
+    }
+
+    @Test
+    void notModifiedForAnyTagOfAList() {
+        String eTag = controller.bundle("pl-PL", null, null, "gzip").getHeaders().getETag();
+
+        ResponseEntity<byte[]> listed = controller.bundle("pl-PL", null, "\"other\", W/" + eTag + " , \"x,y\"", null);
+        ResponseEntity<byte[]> prefixed = controller.bundle("pl-PL", null, eTag.replace("\"", "\"stale-"), null);
+
+        assertThat(listed.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(listed.getHeaders().getETag()).isEqualTo(bundles.get(POLISH).getETag());
+        assertThat(prefixed.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void notModifiedForAnyTag() {
+        ResponseEntity<byte[]> response = controller.bundle("pl-PL", null, "*", null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void versionedRequestIsImmutable() {
+        String version = bundles.get(POLISH).getVersion();
+
+        ResponseEntity<byte[]> response = controller.bundle("pl-PL", version, null, null);
+
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("public, max-age=31536000, immutable");
+        assertThat(controller.bundle("pl-PL", "outdated", null, null).getHeaders().getCacheControl())
+                .isEqualTo("public, no-cache");
+    }
+
+    @Test
+    void tagsOfOneChainShareTheBundle() {
+        I18nBundles.Bundle bundle = bundles.get(POLISH);
+
+        assertThat(bundles.get(Locale.forLanguageTag("pl"))).isSameAs(bundle);
+        assertThat(bundles.get(Locale.forLanguageTag("pl-PL-x-made-up"))).isSameAs(bundle);
+        verify(messageSource, times(1)).getAllMessages(any());
+    }
+
+    @Test
+    void unsupportedLanguageIsNotFound() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(controller.bundle("x" + i, null, null, null).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        }
+
+        verify(messageSource, never()).getAllMessages(any());
+        assertThat(controller.bundle("pl-PL", null, null, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+}
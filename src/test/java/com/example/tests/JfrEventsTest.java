@@ -0,0 +1,78 @@
+package com.example.tests;
+
+import com.example.component.FastDeserializingConverter;
+import com.example.component.FastSerializingConverter;
+import com.example.component.LoggingContextFilter;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class JfrEventsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void bundledSettingsEnableTheApplicationEvents() throws Exception {
+        try (Reader reader = new InputStreamReader(new ClassPathResource("jfr/demo.jfc").getInputStream(),
+                StandardCharsets.UTF_8)) {
+            assertThat(Configuration.create(reader).getSettings())
+                    .containsEntry("com.example.HttpRequest#enabled", "true")
+                    .containsEntry("com.example.SessionWrite#enabled", "true")
+                    .containsEntry("com.example.MessageLookup#threshold", "1 ms");
+        }
+    }
+
+    @Test
+    void requestAndSessionEventsAreRecorded() throws Exception {
+        Path file = directory.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.HttpRequest").withoutThreshold();
+            recording.enable("com.example.SessionRead").withoutThreshold();
+            recording.enable("com.example.SessionWrite").withoutThreshold();
+            recording.start();
+
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/home");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/home");
+            request.addHeader(LoggingContextFilter.REQUEST_ID_HEADER, "abc");
+            new LoggingContextFilter(false).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            byte[] bytes = new FastSerializingConverter().convert("attribute");
+            new FastDeserializingConverter().convert(bytes);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals("com.example.HttpRequest"))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("method")).isEqualTo("GET");
+                    assertThat(event.getString("uriTemplate")).isEqualTo("/home");
+                    assertThat(event.getInt("status")).isEqualTo(200);
+                    assertThat(event.getString("requestId")).isEqualTo("abc");
+                });
+        assertThat(events).filteredOn(event -> event.getEventType().getName().startsWith("com.example.Session"))
+                .extracting(event -> event.getEventType().getName(), event -> event.getString("type"))
+                .containsExactly(
+                        tuple("com.example.SessionWrite", "java.lang.String"),
+                        tuple("com.example.SessionRead", "java.lang.String"));
+    }
+}
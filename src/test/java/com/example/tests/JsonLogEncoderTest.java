@@ -0,0 +1,102 @@
+package com.example.tests;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.component.JsonLogEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLogEncoderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger logger = loggerContext.getLogger("com.example.security.AuthDetailsService");
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonLogEncoder encoder = new JsonLogEncoder();
+
+    @BeforeEach
+    void startEncoder() {
+        encoder.setContext(loggerContext);
+        encoder.setCustomFields("app=demo-spring-jsf, env=test");
+        encoder.start();
+    }
+
+    @Test
+    void eventIsWrittenAsOneJsonLine() throws Exception {
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.WARN,
+                "user {} \"locked\" after {} attempts, {}", null, new Object[]{"zażółć\t😀", 3, true});
+        event.setTimeStamp(1_700_000_000_123L);
+        event.setMDCPropertyMap(Map.of("rid", "abc"));
+
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+
+        assertThat(line).endsWith("}\n").doesNotContain("\n{");
+        JsonNode json = objectMapper.readTree(line);
+        assertThat(json.get("@timestamp").asText()).isEqualTo("2023-11-14T22:13:20.123Z");
+        assertThat(json.get("level").asText()).isEqualTo("WARN");
+        assertThat(json.get("logger").asText()).isEqualTo(logger.getName());
+        assertThat(json.get("thread").asText()).isEqualTo(Thread.currentThread().getName());
+        assertThat(json.get("message").asText())
+                .isEqualTo("user zażółć\t😀 \"locked\" after 3 attempts, true");
+        assertThat(json.get("rid").asText()).isEqualTo("abc");
+        assertThat(json.get("app").asText()).isEqualTo("demo-spring-jsf");
+        assertThat(json.get("env").asText()).isEqualTo("test");
+        assertThat(json.has("stack_trace")).isFalse();
+    }
+
+    @Test
+    void messageMatchesTheFormattedMessageOfTheEvent() throws Exception {
+        Object[][] arguments = {
+                {},
+                {"one"},
+                {"one", "two", "three"},
+                {null, -42L},
+                {new int[]{1, 2}},
+        };
+        for (Object[] argumentArray : arguments) {
+            LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO,
+                    "a={} b={} \\{} \u0001", null, argumentArray);
+            JsonNode json = objectMapper.readTree(encoder.encode(event));
+            assertThat(json.get("message").asText()).isEqualTo(event.getFormattedMessage());
+
+            LoggingEvent unescaped = new LoggingEvent(Logger.class.getName(), logger, Level.INFO,
+                    "a={} b={}", null, argumentArray);
+            json = objectMapper.readTree(encoder.encode(unescaped));
+            assertThat(json.get("message").asText()).isEqualTo(unescaped.getFormattedMessage());
+        }
+    }
+
+    @Test
+    void stackTraceIncludesCauses() throws Exception {
+        IllegalStateException exception = new IllegalStateException("boom \"quoted\"",
+                new IllegalArgumentException("cause"));
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.ERROR, "failed", exception, null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encodeTo(event, out);
+
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertThat(json.get("stack_trace").asText())
+                .startsWith("java.lang.IllegalStateException: boom \"quoted\"\n\tat ")
+                .contains("Caused by: java.lang.IllegalArgumentException: cause");
+    }
+
+    @Test
+    void largeLinesDoNotCorruptTheReusedBuffer() throws Exception {
+        String large = "\u0001".repeat(50_000);
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO, large, null, null);
+        assertThat(objectMapper.readTree(encoder.encode(event)).get("message").asText()).isEqualTo(large);
+
+        LoggingEvent small = new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "small", null, null);
+        assertThat(objectMapper.readTree(encoder.encode(small)).get("message").asText()).isEqualTo("small");
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.tests;
+
+import com.example.component.LatencyEndpoint;
+import com.example.component.LatencyRecorder;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyRecorderTest {
+
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+    private final LatencyEndpoint endpoint = new LatencyEndpoint(latencyRecorder);
+
+    @Test
+    void latenciesPerMethodAndTemplate() {
+        for (int i = 1; i <= 1000; i++) {
+            latencyRecorder.record("POST", "/table.xhtml", i * 1_000_000L);
+        }
+        latencyRecorder.record("GET", "/home", 2_000_000L);
+
+        Map<String, LatencyRecorder.Snapshot> interval = endpoint.latency("interval", null);
+
+        assertThat(interval).containsOnlyKeys("GET /home", "POST /table.xhtml");
+        LatencyRecorder.Snapshot postback = interval.get("POST /table.xhtml");
+        assertThat(postback.getCount()).isEqualTo(1000);
+        assertThat(postback.getP50()).isCloseTo(500, within(5.0));
+        assertThat(postback.getP999()).isCloseTo(999, within(10.0));
+        assertThat(interval.get("GET /home").getMax()).isCloseTo(2, within(0.02));
+    }
+
+    @Test
+    void intervalAndCumulativeViews() {
+        latencyRecorder.record("GET", "/home", 1_000_000L);
+        assertThat(endpoint.latency("interval", null).get("GET /home").getCount()).isEqualTo(1);
+
+        latencyRecorder.record("GET", "/home", 1_000_000L);
+        assertThat(endpoint.latency("interval", null).get("GET /home").getCount()).isEqualTo(1);
+        assertThat(endpoint.latency("interval", null).get("GET /home").getCount()).isZero();
+
+        assertThat(endpoint.latency("cumulative", true).get("GET /home").getCount()).isEqualTo(2);
+        assertThat(endpoint.latency("cumulative", null).get("GET /home").getCount()).isZero();
+        assertThatThrownBy(() -> endpoint.latency("p99", null)).isInstanceOf(InvalidEndpointRequestException.class);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.tests;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.component.LatencyRecorder;
+import com.example.component.LoggingContextFilter;
+import com.example.component.RequestContextConverter;
+import com.example.component.ViewIdPhaseListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoggingContextFilterTest {
+
+    private final List<String> lines = new ArrayList<>();
+    private PatternLayout layout;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        layout = new PatternLayout();
+        layout.setContext(loggerContext);
+        layout.getInstanceConverterMap().put("ctx", RequestContextConverter.class.getName());
+        layout.setPattern("%X{rid}|%ctx{sid}|%ctx{user}");
+        layout.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void sessionIsNeverCreated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resources/style.css");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new LoggingContextFilter(true).doFilter(request, response, logLine());
+
+        assertThat(request.getSession(false)).isNull();
+        String requestId = response.getHeader(LoggingContextFilter.REQUEST_ID_HEADER);
+        assertThat(requestId).hasSize(13);
+        assertThat(lines).containsExactly(requestId + "|{no session}|{no user}");
+        assertThat(format()).isEqualTo("||");
+    }
+
+    @Test
+    void anonymousRequestsStoreNoSessionRows() throws Exception {
+        SessionTable table = new SessionTable();
+        SessionRepositoryFilter<?> sessions = new SessionRepositoryFilter<>(
+                table.jdbcRepository(SessionTable.conversionService()));
+
+        for (int i = 0; i < 100; i++) {
+            sessions.doFilter(new MockHttpServletRequest("GET", "/resources/style.css"), new MockHttpServletResponse(),
+                    (request, response) -> new LoggingContextFilter(true).doFilter(request, response, logLine()));
+        }
+        assertThat(table.sessionInserts).isZero();
+
+        // the former SessionIdFilter called getSession() on every request
+        for (int i = 0; i < 100; i++) {
+            sessions.doFilter(new MockHttpServletRequest("GET", "/resources/style.css"), new MockHttpServletResponse(),
+                    (request, response) -> ((HttpServletRequest) request).getSession());
+        }
+        assertThat(table.sessionInserts).isEqualTo(100);
+    }
+
+    @Test
+    void uriTemplatesNeverUseTheRawPath() throws Exception {
+        LatencyRecorder latencyRecorder = new LatencyRecorder();
+        LoggingContextFilter filter = new LoggingContextFilter(false, null, latencyRecorder, null);
+        for (int i = 0; i < 100; i++) {
+            filter.doFilter(new MockHttpServletRequest("GET", "/random-" + i), new MockHttpServletResponse(),
+                    (request, response) -> ((HttpServletResponse) response).sendError(404));
+            filter.doFilter(new MockHttpServletRequest("GET", "/random-" + i + ".xhtml"), new MockHttpServletResponse(),
+                    (request, response) -> ((HttpServletResponse) response).sendRedirect("/login"));
+        }
+        filter.doFilter(new MockHttpServletRequest("GET", "/table.xhtml"), new MockHttpServletResponse(),
+                (request, response) -> request.setAttribute(ViewIdPhaseListener.VIEW_ID_ATTRIBUTE, "/table.xhtml"));
+        filter.doFilter(new MockHttpServletRequest("GET", "/missing.xhtml"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    request.setAttribute(ViewIdPhaseListener.VIEW_ID_ATTRIBUTE, "/missing.xhtml");
+                    ((HttpServletResponse) response).sendError(404);
+                });
+        filter.doFilter(new MockHttpServletRequest("GET", "/i18n/pl"), new MockHttpServletResponse(),
+                (request, response) -> request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/i18n/{lang}"));
+
+        assertThat(latencyRecorder.interval()).containsOnlyKeys("GET {unmatched 4xx}", "GET {unmatched 3xx}",
+                "GET /table.xhtml", "GET /i18n/{lang}");
+    }
+
+    @Test
+    void sessionAndUserAreResolvedWhenPrinted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/table.xhtml");
+        MockHttpSession session = new MockHttpSession(null, "session-1");
+        request.setSession(session);
+        request.addHeader(LoggingContextFilter.REQUEST_ID_HEADER, "upstream-1");
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("admin", "admin"));
+
+        new LoggingContextFilter(false).doFilter(request, new MockHttpServletResponse(), logLine());
+
+        SecurityContextHolder.clearContext();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl(new UsernamePasswordAuthenticationToken("user", "user")));
+        new LoggingContextFilter(false).doFilter(request, new MockHttpServletResponse(), logLine());
+
+        assertThat(lines).containsExactly("upstream-1|session-1|admin", "upstream-1|session-1|user");
+    }
+
+    private FilterChain logLine() {
+        return (request, response) -> lines.add(format());
+    }
+
+    private String format() {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerContextRemoteView(((LoggerContext) LoggerFactory.getILoggerFactory()).getLoggerContextRemoteView());
+        event.setMessage("");
+        return layout.doLayout(event);
+    }
+}
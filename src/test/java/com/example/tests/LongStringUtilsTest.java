@@ -5,7 +5,12 @@ import com.example.entity.User;
 import com.example.utils.LongStringUtils;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -76,4 +81,33 @@ class LongStringUtilsTest {
                 .doesNotEndWith(SUFFIX);
     }
 
+    @Test
+    void formatStopsWalkingLargeCollections() {
+        AtomicInteger rendered = new AtomicInteger();
+        List<Object> users = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            users.add(new Object() {
+                @Override
+                public String toString() {
+                    rendered.incrementAndGet();
+                    return "User(login=user)";
+                }
+            });
+        }
+
+        assertThat(LongStringUtils.formatLongString(users))
+                .isEqualTo("[User(login=user), User(login=user), User(login=user), ...>");
+        assertThat(rendered).hasValue(4);
+    }
+
+    @Test
+    void formatArraysAndMaps() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("ids", new int[]{1, 2});
+        map.put("self", map);
+
+        assertThat(LongStringUtils.formatLongString(new Object[]{"key", null, map}))
+                .isEqualTo("[key, null, {ids=[1, 2], self=(this Map)}]");
+    }
+
 }
@@ -0,0 +1,60 @@
+package com.example.tests;
+
+import com.example.component.MessageCatalog;
+import com.example.entity.Message;
+import com.example.repository.MessagesRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class MessageCatalogTest {
+
+    @Test
+    void emptyBeforeRefresh() {
+        MessageCatalog catalog = new MessageCatalog(mock(MessagesRepository.class));
+
+        assertThat(catalog.getText("hello.text", "eng")).isNull();
+        assertThat(catalog.getVersion()).isZero();
+    }
+
+    @Test
+    void refreshLoadsAllLanguages() {
+        MessagesRepository repository = mock(MessagesRepository.class);
+        given(repository.findAll()).willReturn(List.of(
+                new Message(1L, "eng", "hello.text", "hello word"),
+                new Message(2L, "pol", "hello.text", "witaj świecie")));
+
+        MessageCatalog catalog = new MessageCatalog(repository);
+        catalog.refresh();
+
+        assertThat(catalog.getText("hello.text", "eng")).isEqualTo("hello word");
+        assertThat(catalog.getText("hello.text", "pol")).isEqualTo("witaj świecie");
+        assertThat(catalog.getText("hello.text", "fra")).isNull();
+        assertThat(catalog.getText("hello.foo", "eng")).isNull();
+        assertThat(catalog.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshBumpsVersionOnlyOnChange() {
+        MessagesRepository repository = mock(MessagesRepository.class);
+        given(repository.findAll())
+                .willReturn(List.of(new Message(1L, "eng", "hello.text", "hello word")))
+                .willReturn(List.of(new Message(1L, "eng", "hello.text", "hello word")))
+                .willReturn(List.of(new Message(1L, "eng", "hello.text", "hello world")));
+
+        MessageCatalog catalog = new MessageCatalog(repository);
+        catalog.refresh();
+        catalog.refresh();
+        assertThat(catalog.getVersion()).isEqualTo(1);
+
+        catalog.refresh();
+        assertThat(catalog.getVersion()).isEqualTo(2);
+        assertThat(catalog.getText("hello.text", "eng")).isEqualTo("hello world");
+    }
+
+}
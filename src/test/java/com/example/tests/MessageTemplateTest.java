@@ -0,0 +1,80 @@
+package com.example.tests;
+
+import com.example.component.MessageTemplateCache;
+import com.example.utils.MessageTemplate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.MissingFormatArgumentException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MessageTemplateTest {
+
+    @Test
+    void plainTextIsReturnedAsIs() {
+        String text = "hello word";
+        MessageTemplate template = MessageTemplate.compile(text);
+
+        assertThat(template.isPlain()).isTrue();
+        assertThat(template.format(null)).isSameAs(text);
+        assertThat(template.format(new Object[]{"ignored"})).isSameAs(text);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"hello %s", "%s", "%s and %s", "%2$s before %1$s", "100%% %s%n", "%s, %1$s, %s",
+            "total: %d", "%.2f %s", "%-10s|", "%s %<s"})
+    void formatsLikeStringFormat(String text) {
+        Object[] args = {"first", 2, new BigDecimal("3.14159")};
+        if (text.contains("%d")) {
+            args = new Object[]{42};
+        } else if (text.contains("%.2f")) {
+            args = new Object[]{3.14159, "pi"};
+        }
+
+        assertThat(MessageTemplate.compile(text).format(args)).isEqualTo(String.format(text, args));
+    }
+
+    @Test
+    void nullArgumentsFormatLikeStringFormat() {
+        assertThat(MessageTemplate.compile("hello %s").format(null)).isEqualTo(String.format("hello %s", (Object[]) null));
+    }
+
+    @Test
+    void missingArgumentFails() {
+        MessageTemplate template = MessageTemplate.compile("%s %s");
+
+        assertThrows(MissingFormatArgumentException.class, () -> template.format(new Object[]{"one"}));
+        assertThat(template.format(new Object[]{"one", "two"})).isEqualTo("one two");
+    }
+
+    @Test
+    void nestedFormattingOnTheSameThread() {
+        MessageTemplate inner = MessageTemplate.compile("inner %s");
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                return inner.format(new Object[]{"value"});
+            }
+        };
+
+        assertThat(MessageTemplate.compile("outer [%s]").format(new Object[]{argument}))
+                .isEqualTo("outer [inner value]");
+    }
+
+    @Test
+    void cacheCompilesEachTextOnce() {
+        MessageTemplateCache cache = new MessageTemplateCache();
+
+        MessageTemplate first = cache.get("hello %s");
+        MessageTemplate second = cache.get("hello %s");
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.hitRatio()).isEqualTo(0.5);
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.example.tests;
+
+import com.example.component.PhaseMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.lifecycle.Lifecycle;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class PhaseMetricsListenerTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final FacesContext facesContext = mock(FacesContext.class);
+    private final Lifecycle lifecycle = mock(Lifecycle.class);
+
+    @Test
+    void phasesAndComponentsAreRecordedPerView() {
+        UIViewRoot viewRoot = mock(UIViewRoot.class);
+        UIComponent panel = mock(UIComponent.class);
+        given(viewRoot.getViewId()).willReturn("/table.xhtml");
+        given(viewRoot.getFacetsAndChildren()).willAnswer(invocation -> List.of(panel).iterator());
+        given(panel.getFacetsAndChildren())
+                .willAnswer(invocation -> List.<UIComponent>of(new UIOutput(), new UIOutput()).iterator());
+        given(facesContext.getViewRoot()).willReturn(viewRoot);
+        PhaseMetricsListener listener = new PhaseMetricsListener(registry, true, 0, null);
+
+        for (PhaseId phaseId : new PhaseId[]{PhaseId.RESTORE_VIEW, PhaseId.INVOKE_APPLICATION, PhaseId.RENDER_RESPONSE}) {
+            PhaseEvent event = new PhaseEvent(facesContext, phaseId, lifecycle);
+            listener.beforePhase(event);
+            listener.afterPhase(event);
+        }
+
+        assertThat(registry.get("jsf.phase").tags("view", "/table.xhtml", "phase", "INVOKE_APPLICATION").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("jsf.phase").tags("view", "/table.xhtml", "phase", "APPLY_REQUEST_VALUES").timer().count())
+                .isZero();
+        assertThat(registry.get("jsf.view.components").tags("view", "/table.xhtml").summary().max()).isEqualTo(4);
+        assertThat(registry.get("jsf.view.state").tags("view", "/table.xhtml").summary().count()).isZero();
+    }
+
+    @Test
+    void viewStateIsTheStoredSizeOfTheSavedEntry() {
+        UIViewRoot viewRoot = mock(UIViewRoot.class);
+        given(viewRoot.getViewId()).willReturn("/table.xhtml");
+        given(viewRoot.getFacetsAndChildren()).willAnswer(invocation -> List.of().iterator());
+        given(facesContext.getViewRoot()).willReturn(viewRoot);
+        Object[] state = {"tree", new HashMap<>(Map.of("table:rows", 25))};
+        Map<String, Object> sessionMap = Map.of("com.sun.faces.renderkit.ServerSideStateHelper.LogicalViewMap",
+                Map.of("-123", Map.of("-456", state)));
+        ExternalContext externalContext = mock(ExternalContext.class);
+        given(externalContext.getSessionMap()).willReturn(sessionMap);
+        given(facesContext.getExternalContext()).willReturn(externalContext);
+        given(facesContext.getAttributes()).willReturn(new HashMap<>(Map.of("com.sun.faces.ViewStateValue", "-123:-456")));
+        ConversionService conversionService = SessionTable.conversionService();
+        PhaseMetricsListener listener = new PhaseMetricsListener(registry, true, 1, conversionService);
+
+        PhaseEvent event = new PhaseEvent(facesContext, PhaseId.RENDER_RESPONSE, lifecycle);
+        listener.beforePhase(event);
+        listener.afterPhase(event);
+
+        byte[] stored = (byte[]) conversionService.convert(state,
+                TypeDescriptor.valueOf(Object.class), TypeDescriptor.valueOf(byte[].class));
+        assertThat(registry.get("jsf.view.state").tags("view", "/table.xhtml").summary().max()).isEqualTo(stored.length);
+        verify(facesContext, never()).getApplication();
+    }
+
+    @Test
+    void nothingIsRecordedWhenDisabled() {
+        PhaseMetricsListener listener = new PhaseMetricsListener(registry, false, 1, null);
+        PhaseEvent event = new PhaseEvent(facesContext, PhaseId.RENDER_RESPONSE, lifecycle);
+
+        listener.beforePhase(event);
+        listener.afterPhase(event);
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+}
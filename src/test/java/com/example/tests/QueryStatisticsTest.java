@@ -0,0 +1,102 @@
+package com.example.tests;
+
+import com.example.component.QueryStatisticsCustomizer;
+import com.example.component.QueryStatisticsFilter;
+import com.example.utils.RequestQueryStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+class QueryStatisticsTest {
+
+    private static final String ROLES = "com.example.entity.User.roles";
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final StatisticsImplementor statistics = buildStatistics();
+
+    @Test
+    void statisticsCountIntoTheCurrentRequestOnly() {
+        statistics.prepareStatement();
+
+        RequestQueryStats stats = RequestQueryStats.begin();
+        loadUsersWithRoles(7);
+        RequestQueryStats.Snapshot snapshot = stats.end(5);
+        statistics.prepareStatement();
+
+        assertThat(snapshot.getStatements()).isEqualTo(8);
+        assertThat(snapshot.getQueries()).isEqualTo(1);
+        assertThat(snapshot.getRows()).isEqualTo(7);
+        assertThat(snapshot.getCollectionFetches()).isEqualTo(7);
+        assertThat(snapshot.getSlowestQuery()).isEqualTo("select u from User u");
+        assertThat(snapshot.getRepeatedShapes()).containsExactly(Map.entry(ROLES, 7));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(10);
+        assertThat(RequestQueryStats.current()).isNull();
+    }
+
+    @Test
+    void queryBudgetPerEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/home");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/home");
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                loadUsersWithRoles(3);
+            }
+        };
+
+        new QueryStatisticsFilter(registry, 2)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet));
+
+        RequestQueryStats.Snapshot snapshot =
+                (RequestQueryStats.Snapshot) request.getAttribute(QueryStatisticsFilter.STATS_ATTRIBUTE);
+        assertThat(snapshot.getStatements()).isLessThanOrEqualTo(4);
+        assertThat(registry.get("hibernate.request.statements").tags("method", "GET", "uri", "/home").summary().max())
+                .isEqualTo(4);
+        assertThat(registry.get("hibernate.request.rows").tags("uri", "/home").summary().totalAmount()).isEqualTo(3);
+        assertThat(registry.get("hibernate.request.repeated.queries").tags("uri", "/home").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("hibernate.request.slowest.query").tags("uri", "/home").timer().count()).isEqualTo(1);
+        assertThat(registry.getMeters()).allSatisfy(meter -> assertThat(meter.getId().getTags())
+                .extracting(Tag::getKey).containsOnly("method", "uri"));
+        assertThat(snapshot.getRepeatedShapes()).containsOnlyKeys(ROLES);
+    }
+
+    private void loadUsersWithRoles(int users) {
+        statistics.prepareStatement();
+        statistics.queryExecuted("select u from User u", users, 3);
+        for (int i = 0; i < users; i++) {
+            statistics.loadEntity("com.example.entity.User");
+            statistics.prepareStatement();
+            statistics.fetchCollection(ROLES);
+            statistics.loadCollection(ROLES);
+        }
+    }
+
+    private static StatisticsImplementor buildStatistics() {
+        Map<String, Object> properties = new HashMap<>();
+        new QueryStatisticsCustomizer().customize(properties);
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+        given(sessionFactory.getSessionFactoryOptions().getQueryStatisticsMaxSize()).willReturn(100);
+        StatisticsFactory factory = (StatisticsFactory) properties.get("hibernate.stats.factory");
+        return factory.buildStatistics(sessionFactory);
+    }
+}
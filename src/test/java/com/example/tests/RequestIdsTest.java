@@ -0,0 +1,54 @@
+package com.example.tests;
+
+import com.example.utils.RequestIds;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestIdsTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Test
+    void newIdsHaveFixedWidth() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = RequestIds.next();
+            assertThat(id).hasSize(RequestIds.LENGTH).matches("[0-9a-hjkmnp-tv-z]+");
+            ids.add(id);
+        }
+        assertThat(ids).hasSize(10_000);
+    }
+
+    @Test
+    void inboundRequestIdWins() {
+        assertThat(RequestIds.resolve("abc-123_X.y", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")).isEqualTo("abc-123_X.y");
+    }
+
+    @Test
+    void traceIdOfTraceparent() {
+        assertThat(RequestIds.resolve(null, "00-" + TRACE_ID + "-00f067aa0ba902b7-01")).isEqualTo(TRACE_ID);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "id with spaces", "id\nforged log line"})
+    void invalidRequestIdsAreReplaced(String inbound) {
+        assertThat(RequestIds.resolve(inbound, null)).hasSize(RequestIds.LENGTH).isNotEqualTo(inbound);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+            "ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736"})
+    void invalidTraceparentsAreIgnored(String traceparent) {
+        assertThat(RequestIds.resolve(null, traceparent)).hasSize(RequestIds.LENGTH);
+    }
+}
@@ -1,13 +1,26 @@
 package com.example.tests;
 
+import com.example.component.DbMessageSource;
 import com.example.component.ResourceBundleBean;
+import com.example.component.ViewMessageKeys;
 import com.example.view.LocaleModel;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class ResourceBundleBeanTest {
 
@@ -36,4 +49,45 @@ class ResourceBundleBeanTest {
                 .isNotEqualTo(new HashMap<>());
     }
 
+    @Test
+    void testEntrySetFromLocaleSnapshot() {
+        LocaleModel localeModel = mock(LocaleModel.class);
+        given(localeModel.getLocale()).willReturn(Locale.ENGLISH);
+        DbMessageSource messageSource = mock(DbMessageSource.class);
+        given(messageSource.getAllMessages(Locale.ENGLISH)).willReturn(Map.of("hello.text", "hello word"));
+
+        ResourceBundleBean resourceBundleBean = new ResourceBundleBean(localeModel, messageSource);
+
+        assertThat(resourceBundleBean.entrySet()).containsExactly(entry("hello.text", "hello word"));
+        assertThat(resourceBundleBean).containsKey("hello.text");
+    }
+
+    @Test
+    void testViewKeysAreResolvedInOneBatch() {
+        LocaleModel localeModel = mock(LocaleModel.class);
+        given(localeModel.getLocale()).willReturn(Locale.ENGLISH);
+        DbMessageSource messageSource = mock(DbMessageSource.class);
+        given(messageSource.getMessage("menu.table", null, Locale.ENGLISH)).willReturn("table");
+        given(messageSource.getMessage("hello.foo", null, Locale.ENGLISH)).willReturn("hello.foo");
+        given(messageSource.getMessages(Set.of("menu.table", "hello.foo"), Locale.ENGLISH))
+                .willReturn(Map.of("menu.table", "table"));
+        ViewMessageKeys viewMessageKeys = new ViewMessageKeys();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/table.xhtml");
+        request.setServletPath("/table.xhtml");
+
+        ResourceBundleBean firstRender = new ResourceBundleBean(localeModel, messageSource, viewMessageKeys, request);
+        assertThat(firstRender.get("menu.table")).isEqualTo("table");
+        assertThat(firstRender.get("hello.foo")).isEqualTo("hello.foo");
+        assertThat(firstRender.get("menu.table")).isEqualTo("table");
+        verify(messageSource, times(1)).getMessage("menu.table", null, Locale.ENGLISH);
+
+        ResourceBundleBean secondRender = new ResourceBundleBean(localeModel, messageSource, viewMessageKeys, request);
+        assertThat(secondRender.get("menu.table")).isEqualTo("table");
+        assertThat(secondRender.get("hello.foo")).isEqualTo("hello.foo");
+        verify(messageSource, times(1)).getMessages(any(), any());
+        verify(messageSource, times(1)).getMessage("menu.table", null, Locale.ENGLISH);
+        verify(messageSource, times(1)).getMessage("hello.foo", null, Locale.ENGLISH);
+        verify(messageSource, never()).getAllMessages(any());
+    }
+
 }
@@ -0,0 +1,133 @@
+package com.example.tests;
+
+import com.example.component.DeltaSessionRepository;
+import com.example.component.SessionAccessWriter;
+import com.example.component.SessionNearCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.convert.ConversionService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.tests.SessionTable.login;
+import static com.example.tests.SessionTable.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionAccessWriterTest {
+
+    private static final String PRINCIPAL = "{\"authorities\":[{\"authority\":\"ROLE_USER\"}],\"authenticated\":true,\"name\":\"user\"}";
+
+    private final SessionTable table = new SessionTable();
+    private final ConversionService conversionService = SessionTable.conversionService();
+    private final Instant start = Instant.now();
+
+    @Test
+    void accessesWithinTheGranularityAreNotStored() {
+        SessionAccessWriter writer = writer(500);
+        DeltaSessionRepository<?> repository = repository(null, writer);
+        String id = login(repository);
+        long stored = table.lastAccessTime(id);
+        table.reset();
+
+        for (int i = 1; i <= 10; i++) {
+            request(repository, id, start.plusSeconds(i), session -> session.setAttribute("principal", PRINCIPAL));
+        }
+        writer.flush();
+
+        assertThat(table.sessionUpdates).isZero();
+        assertThat(table.lastAccessTime(id)).isEqualTo(stored);
+        assertThat(writer.getSkipped()).isEqualTo(10);
+    }
+
+    @Test
+    void dueAccessesAreCoalescedIntoOneUpdate() {
+        SessionAccessWriter writer = writer(500);
+        DeltaSessionRepository<?> repository = repository(null, writer);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(login(repository));
+        }
+        table.reset();
+
+        for (String id : ids) {
+            request(repository, id, start.plus(Duration.ofMinutes(2)), session -> session.setAttribute("principal", PRINCIPAL));
+            request(repository, id, start.plus(Duration.ofMinutes(3)), session -> session.setAttribute("principal", PRINCIPAL));
+        }
+        assertThat(table.sessionUpdates).isZero();
+        writer.flush();
+
+        assertThat(table.sessionUpdates).isEqualTo(1);
+        assertThat(ids).allSatisfy(id -> assertThat(table.lastAccessTime(id))
+                .isEqualTo(start.plus(Duration.ofMinutes(3)).toEpochMilli()));
+        assertThat(writer.getWritten()).isEqualTo(3);
+        assertThat(writer.getCoalesced()).isEqualTo(3);
+        assertThat(writer.getPending()).isZero();
+    }
+
+    @Test
+    void flushesAreSplitIntoBatches() {
+        SessionAccessWriter writer = writer(2);
+        DeltaSessionRepository<?> repository = repository(null, writer);
+        for (int i = 0; i < 5; i++) {
+            String id = login(repository);
+            request(repository, id, start.plus(Duration.ofMinutes(2)), session -> { });
+        }
+        table.reset();
+
+        writer.flush();
+
+        assertThat(table.sessionUpdates).isEqualTo(3);
+        assertThat(writer.getStatements()).isEqualTo(3);
+        assertThat(writer.getWritten()).isEqualTo(5);
+    }
+
+    @Test
+    void cachedSessionsRememberTheQueuedAccess() {
+        SessionAccessWriter writer = writer(500);
+        SessionNearCache nearCache = new SessionNearCache(table.operations, "SPRING_SESSION", 100,
+                SessionNearCache.Consistency.BOUNDED, Duration.ofMinutes(10), Clock.systemUTC());
+        DeltaSessionRepository<?> repository = repository(nearCache, writer);
+        String id = login(repository);
+        table.reset();
+
+        for (int i = 0; i < 10; i++) {
+            request(repository, id, start.plus(Duration.ofMinutes(2)).plusSeconds(i), session -> { });
+        }
+        writer.flush();
+
+        assertThat(table.sessionSelects).isZero();
+        assertThat(table.sessionUpdates).isEqualTo(1);
+        assertThat(table.lastAccessTime(id)).isEqualTo(start.plus(Duration.ofMinutes(2)).toEpochMilli());
+        assertThat(writer.getSkipped()).isEqualTo(9);
+    }
+
+    @Test
+    void queuedAccessesAreStoredWhenTheContextCloses() {
+        SessionAccessWriter writer = writer(500);
+        DeltaSessionRepository<?> repository = repository(null, writer);
+        String id = login(repository);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        TestPropertyValues.of("session.access-writes.enable=true").applyTo(context);
+        context.registerBean(SessionAccessWriter.class, () -> writer);
+        context.refresh();
+        request(repository, id, start.plus(Duration.ofMinutes(2)), session -> { });
+
+        context.close();
+
+        assertThat(table.lastAccessTime(id)).isEqualTo(start.plus(Duration.ofMinutes(2)).toEpochMilli());
+        assertThat(writer.getPending()).isZero();
+    }
+
+    private SessionAccessWriter writer(int batchSize) {
+        return new SessionAccessWriter(table.operations, "SPRING_SESSION", Duration.ofMinutes(1), batchSize);
+    }
+
+    private DeltaSessionRepository<?> repository(SessionNearCache nearCache, SessionAccessWriter writer) {
+        return new DeltaSessionRepository<>(table.jdbcRepository(conversionService), conversionService, nearCache, writer);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tests;
+
+import com.example.component.FastDeserializingConverter;
+import com.example.component.FastSerializingConverter;
+import com.example.component.SessionCodec;
+import com.example.entity.Role;
+import com.example.entity.User;
+import org.junit.jupiter.api.Test;
+import org.nustaq.serialization.FSTConfiguration;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionCodecTest {
+
+    private final SessionCodec codec = new SessionCodec();
+
+    @Test
+    void registeredSessionContentsRoundTripSmallerThanWithClassNames() {
+        SecurityContext context = securityContext();
+
+        byte[] bytes = codec.encode(context);
+
+        assertThat(bytes[0]).isEqualTo((byte) 'F');
+        assertThat(bytes[1]).isEqualTo((byte) 1);
+        SecurityContext decoded = (SecurityContext) codec.decode(bytes);
+        assertThat(decoded.getAuthentication().getName()).isEqualTo("admin");
+        assertThat(decoded.getAuthentication().getAuthorities()).extracting(Object::toString)
+                .containsExactly("ROLE_ADMIN", "ROLE_USER");
+        assertThat(((User) decoded.getAuthentication().getPrincipal()).getPassword()).isEqualTo("{noop}secret");
+        assertThat(bytes.length)
+                .isLessThan(FSTConfiguration.createDefaultConfiguration().asByteArray(context).length / 2);
+    }
+
+    @Test
+    void attributesWrittenWithoutHeaderAreStillRead() {
+        FSTConfiguration legacy = FSTConfiguration.createDefaultConfiguration();
+
+        assertThat(codec.decode(legacy.asByteArray(securityContext())))
+                .isInstanceOfSatisfying(SecurityContext.class,
+                        context -> assertThat(context.getAuthentication().getName()).isEqualTo("admin"));
+        assertThat(codec.decode(legacy.asByteArray("attribute"))).isEqualTo("attribute");
+        assertThat(codec.decode(legacy.asByteArray(Locale.GERMANY))).isEqualTo(Locale.GERMANY);
+        assertThat(codec.decode(legacy.asByteArray(null))).isNull();
+        assertThat(codec.getUnreadable()).isZero();
+    }
+
+    @Test
+    void unreadableAttributesAreDroppedAndCounted() {
+        byte[] futureVersion = codec.encode("attribute");
+        futureVersion[1] = 99;
+        byte[] truncated = codec.encode(securityContext());
+
+        assertThat(codec.decode(futureVersion)).isNull();
+        assertThat(codec.decode(new byte[]{'F', 1, 0, 1, 2})).isNull();
+        assertThat(codec.decode(Arrays.copyOf(truncated, 10))).isNull();
+        assertThat(codec.getUnreadable()).isEqualTo(3);
+    }
+
+    @Test
+    void convertersUseTheCodec() {
+        byte[] bytes = new FastSerializingConverter(codec).convert(Locale.GERMANY);
+
+        assertThat(bytes[0]).isEqualTo((byte) 'F');
+        assertThat(new FastDeserializingConverter(codec).convert(bytes)).isEqualTo(Locale.GERMANY);
+    }
+
+    private static SecurityContext securityContext() {
+        User user = new User("admin", "{noop}secret", List.of(new Role(1L, "ROLE_ADMIN"), new Role(2L, "ROLE_USER")));
+        return new SecurityContextImpl(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.tests;
+
+import com.example.component.FastDeserializingConverter;
+import com.example.component.FastSerializingConverter;
+import com.example.component.SessionCodec;
+import com.example.component.SessionCompression;
+import com.example.config.SessionConfiguration;
+import com.example.entity.Message;
+import com.example.view.TableView;
+import org.junit.jupiter.api.Test;
+import org.nustaq.serialization.FSTConfiguration;
+import org.springframework.core.convert.ConversionService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionCompressionTest {
+
+    private final SessionCompression compression = new SessionCompression(512, 1);
+
+    @Test
+    void attributesAboveTheThresholdAreStoredCompressed() {
+        SessionCodec codec = new SessionCodec();
+        byte[] raw = codec.encode(tableViewWithPage(50));
+
+        byte[] stored = compression.compress(raw);
+
+        assertThat(stored[0]).isEqualTo((byte) 'Z');
+        assertThat(stored.length).isLessThan(raw.length / 2);
+        assertThat(compression.decompress(stored)).isEqualTo(raw);
+        TableView decoded = (TableView) codec.decode(compression.decompress(stored));
+        assertThat(decoded.getMessages().getWrappedData()).hasSize(50);
+        assertThat(compression.getRawBytes()).isEqualTo(raw.length);
+        assertThat(compression.getStoredBytes()).isEqualTo(stored.length);
+    }
+
+    @Test
+    void smallAndIncompressibleAttributesAreStoredAsIs() {
+        byte[] small = new SessionCodec().encode("attribute");
+        byte[] random = new byte[4096];
+        new Random(42).nextBytes(random);
+        random[0] = 'F';
+
+        assertThat(compression.compress(small)).isSameAs(small);
+        assertThat(compression.compress(random)).isSameAs(random);
+        assertThat(new SessionCompression(-1, 1).compress(new byte[4096])).hasSize(4096);
+        assertThat(compression.getStoredBytes()).isEqualTo(compression.getRawBytes());
+    }
+
+    @Test
+    void uncompressedRowsAreReadAsBefore() {
+        byte[] legacy = FSTConfiguration.createDefaultConfiguration().asByteArray(tableViewWithPage(50));
+        byte[] codec = new SessionCodec().encode(tableViewWithPage(50));
+
+        assertThat(compression.decompress(legacy)).isSameAs(legacy);
+        assertThat(compression.decompress(codec)).isSameAs(codec);
+        assertThat(compression.decompress(new byte[0])).isEmpty();
+    }
+
+    @Test
+    void corruptCompressedAttributesAreDropped() {
+        byte[] stored = compression.compress(new SessionCodec().encode(tableViewWithPage(50)));
+
+        assertThat(compression.decompress(Arrays.copyOf(stored, stored.length / 2))).isNull();
+        byte[] wrongLength = stored.clone();
+        wrongLength[1]++;
+        assertThat(compression.decompress(wrongLength)).isNull();
+        assertThat(compression.decompress(new byte[]{'Z', (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}))
+                .isNull();
+    }
+
+    @Test
+    void sessionConversionServiceCompressesAndReadsBothFormats() {
+        SessionCodec codec = new SessionCodec();
+        ConversionService conversionService = new SessionConfiguration().springSessionConversionService(
+                new FastDeserializingConverter(codec), new FastSerializingConverter(codec), compression);
+
+        byte[] stored = conversionService.convert(tableViewWithPage(50), byte[].class);
+
+        assertThat(stored[0]).isEqualTo((byte) 'Z');
+        assertThat(conversionService.convert(stored, Object.class)).isInstanceOf(TableView.class);
+        assertThat(conversionService.convert(codec.encode("attribute"), Object.class)).isEqualTo("attribute");
+        assertThat(conversionService.convert(Arrays.copyOf(stored, 8), Object.class)).isNull();
+    }
+
+    private static TableView tableViewWithPage(int size) {
+        List<Message> page = new ArrayList<>();
+        for (long i = 0; i < size; i++) {
+            page.add(new Message(i, "eng", "table.column." + i, "Text of message number " + i));
+        }
+        TableView tableView = new TableView();
+        tableView.getMessages().setWrappedData(page);
+        return tableView;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.tests;
+
+import com.example.component.DeltaSessionRepository;
+import com.example.component.SessionNearCache;
+import com.example.component.SessionNearCache.Consistency;
+import com.example.view.TableView;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.tests.SessionTable.login;
+import static com.example.tests.SessionTable.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class SessionNearCacheTest {
+
+    private static final String PRINCIPAL = "{\"authorities\":[{\"authority\":\"ROLE_USER\"}],\"authenticated\":true,\"name\":\"user\"}";
+
+    private final SessionTable table = new SessionTable();
+    private final ConversionService conversionService = SessionTable.conversionService();
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void stickyReadsNeedNoSelect() {
+        SessionNearCache nearCache = nearCache(Consistency.BOUNDED);
+        DeltaSessionRepository<?> repository = repository(nearCache);
+        String id = login(repository);
+        request(repository, id, session -> session.setAttribute("principal", PRINCIPAL));
+        table.reset();
+
+        for (int i = 0; i < 10; i++) {
+            request(repository, id, session -> session.setAttribute("principal", PRINCIPAL));
+        }
+
+        assertThat(table.sessionSelects).isZero();
+        assertThat(table.stampSelects).isZero();
+        assertThat(table.sessionUpdates).isEqualTo(10);
+        assertThat(table.lastAccessTime(id)).isGreaterThan(0);
+        assertThat(nearCache.getHits()).isEqualTo(11);
+    }
+
+    @Test
+    void strongConsistencyReadsOnlyTheStamp() {
+        SessionNearCache nearCache = nearCache(Consistency.STRONG);
+        DeltaSessionRepository<?> repository = repository(nearCache);
+        String id = login(repository);
+        request(repository, id, session -> session.setAttribute("principal", PRINCIPAL));
+        request(repository, id, session -> session.setAttribute("principal", PRINCIPAL));
+        table.reset();
+
+        for (int i = 0; i < 10; i++) {
+            request(repository, id, session -> session.setAttribute("principal", PRINCIPAL));
+        }
+
+        assertThat(table.sessionSelects).isZero();
+        assertThat(table.stampSelects).isEqualTo(10);
+        assertThat(nearCache.getValidated()).isEqualTo(10);
+    }
+
+    @Test
+    void writesOfOtherNodesAreReadOnceTheEntryIsValidated() {
+        SessionNearCache nearCache = nearCache(Consistency.BOUNDED);
+        DeltaSessionRepository<?> repository = repository(nearCache);
+        String id = login(repository);
+        request(repository, id, session -> session.setAttribute("principal", PRINCIPAL));
+        table.write(id, "principal", bytes("other node"));
+
+        request(repository, id, session -> assertThat(session.<String>getAttribute("principal")).isEqualTo(PRINCIPAL));
+        clock.advance(Duration.ofSeconds(5));
+        request(repository, id, session -> assertThat(session.<String>getAttribute("principal")).isEqualTo("other node"));
+
+        assertThat(nearCache.getStale()).isEqualTo(1);
+    }
+
+    @Test
+    void eventualConsistencyNeverReadsTheStamp() {
+        SessionNearCache nearCache = nearCache(Consistency.EVENTUAL);
+        DeltaSessionRepository<?> repository = repository(nearCache);
+        String id = login(repository);
+        table.reset();
+
+        clock.advance(Duration.ofMinutes(10));
+        request(repository, id, session -> assertThat(session.<Object>getAttribute("SPRING_SECURITY_CONTEXT")).isNotNull());
+
+        assertThat(table.stampSelects).isZero();
+        assertThat(table.sessionSelects).isZero();
+    }
+
+    @Test
+    void requestsDeserializeTheirOwnCopiesOfCachedAttributes() {
+        SessionNearCache nearCache = nearCache(Consistency.BOUNDED);
+        DeltaSessionRepository<?> repository = repository(nearCache);
+        String id = login(repository);
+        request(repository, id, session -> session.setAttribute("scopedTarget.tableView", new TableView()));
+        List<Object> tableViews = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            String page = "page " + i;
+            request(repository, id, session -> {
+                tableViews.add(session.getAttribute("scopedTarget.tableView"));
+                session.setAttribute("page", page);
+            });
+        }
+
+        assertThat(table.attribute(id, "page")).isEqualTo(bytes("page 2"));
+        assertThat(tableViews).hasSize(3).doesNotHaveDuplicates()
+                .allSatisfy(tableView -> assertThat(bytes(tableView)).isEqualTo(table.attribute(id, "scopedTarget.tableView")));
+    }
+
+    @Test
+    void removedAttributesAreDeletedFromCachedSessions() {
+        SessionNearCache nearCache = nearCache(Consistency.BOUNDED);
+        DeltaSessionRepository<?> repository = repository(nearCache);
+        String id = login(repository);
+        request(repository, id, session -> session.setAttribute("principal", PRINCIPAL));
+
+        request(repository, id, session -> session.removeAttribute("principal"));
+
+        assertThat(table.attribute(id, "principal")).isNull();
+        request(repository, id, session -> assertThat(session.getAttributeNames()).containsExactly("SPRING_SECURITY_CONTEXT"));
+    }
+
+    @Test
+    void sessionsDeletedByOtherNodesAreDroppedByTheirNextAccess() {
+        SessionNearCache nearCache = nearCache(Consistency.BOUNDED);
+        DeltaSessionRepository<?> repository = repository(nearCache);
+        String id = login(repository);
+        table.delete(id);
+
+        request(repository, id, Instant.now().plusSeconds(1), session -> {
+        });
+
+        assertThat(nearCache.size()).isZero();
+        assertThat(nearCache.getStale()).isEqualTo(1);
+        assertThat(repository.findById(id)).isNull();
+    }
+
+    @Test
+    void changedSessionIdsAreNotServedFromTheCache() {
+        SessionNearCache nearCache = nearCache(Consistency.EVENTUAL);
+        DeltaSessionRepository<?> repository = repository(nearCache);
+        String id = login(repository);
+        String[] changed = new String[1];
+
+        request(repository, id, session -> changed[0] = session.changeSessionId());
+
+        assertThat(repository.findById(id)).isNull();
+        assertThat(repository.findById(changed[0])).isNotNull();
+    }
+
+    private SessionNearCache nearCache(Consistency consistency) {
+        return new SessionNearCache(table.operations, "SPRING_SESSION", 100, consistency, Duration.ofSeconds(5), clock);
+    }
+
+    private DeltaSessionRepository<?> repository(SessionNearCache nearCache) {
+        return new DeltaSessionRepository<>(table.jdbcRepository(conversionService), conversionService, nearCache);
+    }
+
+    private byte[] bytes(Object value) {
+        return (byte[]) conversionService.convert(value, TypeDescriptor.valueOf(Object.class),
+                TypeDescriptor.valueOf(byte[].class));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.now();
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
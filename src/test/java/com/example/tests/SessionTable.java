@@ -0,0 +1,289 @@
+package com.example.tests;
+
+import com.example.component.FastDeserializingConverter;
+import com.example.component.FastSerializingConverter;
+import com.example.component.SessionCodec;
+import com.example.component.SessionCompression;
+import com.example.config.SessionConfiguration;
+import org.mockito.invocation.Invocation;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The session tables in memory behind a mocked {@link JdbcOperations}, counting the statements run against them. The
+ * write stamp is incremented by every statement changing attributes, as the triggers of the schema do.
+ */
+final class SessionTable {
+
+    private static final String[] COLUMNS = {"PRIMARY_ID", "SESSION_ID", "CREATION_TIME", "LAST_ACCESS_TIME",
+            "MAX_INACTIVE_INTERVAL", "ATTRIBUTE_NAME", "ATTRIBUTE_BYTES"};
+    private static final int SESSION_ID = 0;
+    private static final int LAST_ACCESS_TIME = 2;
+    private static final int MAX_INACTIVE_INTERVAL = 3;
+    private static final int WRITE_STAMP = 4;
+
+    final JdbcOperations operations = mock(JdbcOperations.class, this::answer);
+    private final Map<String, Object[]> sessions = new HashMap<>();
+    private final Map<String, Map<String, byte[]>> attributes = new HashMap<>();
+    int attributeInserts;
+    int attributeUpdates;
+    int attributeDeletes;
+    int sessionInserts;
+    int sessionUpdates;
+    int sessionSelects;
+    int stampSelects;
+
+    static ConversionService conversionService() {
+        return new SessionConfiguration().springSessionConversionService(
+                new FastDeserializingConverter(new SessionCodec()), new FastSerializingConverter(new SessionCodec()),
+                new SessionCompression(512, 1));
+    }
+
+    static <S extends Session> String login(SessionRepository<S> repository) {
+        S session = repository.createSession();
+        session.setAttribute("SPRING_SECURITY_CONTEXT", new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("user", null, AuthorityUtils.createAuthorityList("ROLE_USER"))));
+        repository.save(session);
+        return session.getId();
+    }
+
+    /**
+     * Handles a request the way the session repository filter does.
+     */
+    static <S extends Session> void request(SessionRepository<S> repository, String id, Consumer<Session> handler) {
+        request(repository, id, Instant.now(), handler);
+    }
+
+    static <S extends Session> void request(SessionRepository<S> repository, String id, Instant time,
+                                            Consumer<Session> handler) {
+        S session = repository.findById(id);
+        assertThat(session).isNotNull();
+        session.setLastAccessedTime(time);
+        handler.accept(session);
+        repository.save(session);
+    }
+
+    JdbcIndexedSessionRepository jdbcRepository(ConversionService conversionService) {
+        JdbcIndexedSessionRepository repository = new JdbcIndexedSessionRepository(operations,
+                TransactionOperations.withoutTransaction());
+        repository.setConversionService(conversionService);
+        return repository;
+    }
+
+    byte[] attribute(String sessionId, String name) {
+        String primaryId = primaryId(sessionId);
+        return primaryId == null ? null : attributes.get(primaryId).get(name);
+    }
+
+    long lastAccessTime(String sessionId) {
+        return (Long) sessions.get(primaryId(sessionId))[LAST_ACCESS_TIME];
+    }
+
+    /**
+     * Writes an attribute as another node would.
+     */
+    void write(String sessionId, String name, byte[] bytes) {
+        String primaryId = primaryId(sessionId);
+        attributes.get(primaryId).put(name, bytes);
+        stamp(primaryId);
+    }
+
+    /**
+     * Deletes a session as another node would.
+     */
+    void delete(String sessionId) {
+        String primaryId = primaryId(sessionId);
+        sessions.remove(primaryId);
+        attributes.remove(primaryId);
+    }
+
+    void reset() {
+        attributeInserts = 0;
+        attributeUpdates = 0;
+        attributeDeletes = 0;
+        sessionInserts = 0;
+        sessionUpdates = 0;
+        sessionSelects = 0;
+        stampSelects = 0;
+    }
+
+    private Object answer(InvocationOnMock invocation) throws Throwable {
+        Object[] arguments = ((Invocation) invocation).getRawArguments();
+        String sql = (String) arguments[0];
+        switch (invocation.getMethod().getName()) {
+            case "update":
+                if (arguments[1] instanceof PreparedStatementSetter) {
+                    return execute(sql, parameters(((PreparedStatementSetter) arguments[1])::setValues));
+                }
+                return execute(sql, positional((Object[]) arguments[1]));
+            case "batchUpdate":
+                return batchUpdate(sql, (BatchPreparedStatementSetter) arguments[1]);
+            case "query":
+                sessionSelects++;
+                String sessionId = (String) parameters(((PreparedStatementSetter) arguments[1])::setValues).get(1);
+                return ((ResultSetExtractor<?>) arguments[2]).extractData(select(sessionId));
+            case "queryForList":
+                stampSelects++;
+                String primaryId = primaryId((String) ((Object[]) arguments[2])[0]);
+                return primaryId == null ? Collections.emptyList()
+                        : Collections.singletonList(sessions.get(primaryId)[WRITE_STAMP]);
+            default:
+                throw new UnsupportedOperationException(invocation.getMethod().toString());
+        }
+    }
+
+    private int[] batchUpdate(String sql, BatchPreparedStatementSetter setter) throws SQLException {
+        int[] counts = new int[setter.getBatchSize()];
+        for (int i = 0; i < counts.length; i++) {
+            int row = i;
+            execute(sql, parameters(statement -> setter.setValues(statement, row)));
+            counts[i] = 1;
+        }
+        return counts;
+    }
+
+    private int execute(String sql, Map<Integer, Object> p) {
+        if (sql.startsWith("INSERT INTO SPRING_SESSION_ATTRIBUTES")) {
+            attributes.get((String) p.get(1)).put((String) p.get(2), (byte[]) p.get(3));
+            stamp((String) p.get(1));
+            attributeInserts++;
+        } else if (sql.startsWith("UPDATE SPRING_SESSION_ATTRIBUTES")) {
+            attributes.get((String) p.get(2)).put((String) p.get(3), (byte[]) p.get(1));
+            stamp((String) p.get(2));
+            attributeUpdates++;
+        } else if (sql.startsWith("DELETE FROM SPRING_SESSION_ATTRIBUTES")) {
+            attributes.get((String) p.get(1)).remove((String) p.get(2));
+            stamp((String) p.get(1));
+            attributeDeletes++;
+        } else if (sql.startsWith("INSERT INTO SPRING_SESSION")) {
+            sessions.put((String) p.get(1), new Object[]{p.get(2), p.get(3), p.get(4), p.get(5), 0L});
+            attributes.put((String) p.get(1), new LinkedHashMap<>());
+            sessionInserts++;
+        } else if (sql.startsWith("UPDATE SPRING_SESSION S SET LAST_ACCESS_TIME")) {
+            for (int i = 1; i < p.size(); i += 3) {
+                Object[] session = sessions.get(primaryId((String) p.get(i)));
+                if (session != null && (Long) session[LAST_ACCESS_TIME] < (Long) p.get(i + 1)) {
+                    session[LAST_ACCESS_TIME] = p.get(i + 1);
+                }
+            }
+            sessionUpdates++;
+        } else if (sql.startsWith("UPDATE SPRING_SESSION SET SESSION_ID")) {
+            Object[] session = sessions.get((String) p.get(6));
+            session[SESSION_ID] = p.get(1);
+            session[LAST_ACCESS_TIME] = p.get(2);
+            session[MAX_INACTIVE_INTERVAL] = p.get(3);
+            sessionUpdates++;
+        } else if (sql.startsWith("UPDATE SPRING_SESSION SET LAST_ACCESS_TIME")) {
+            sessionUpdates++;
+            Object[] session = sessions.get(primaryId((String) p.get(3)));
+            if (session == null) {
+                return 0;
+            }
+            session[LAST_ACCESS_TIME] = p.get(1);
+        } else {
+            throw new IllegalArgumentException(sql);
+        }
+        return 1;
+    }
+
+    private void stamp(String primaryId) {
+        Object[] session = sessions.get(primaryId);
+        session[WRITE_STAMP] = (Long) session[WRITE_STAMP] + 1;
+    }
+
+    private String primaryId(String sessionId) {
+        return sessions.entrySet().stream()
+                .filter(session -> session.getValue()[SESSION_ID].equals(sessionId))
+                .map(Map.Entry::getKey)
+                .findFirst().orElse(null);
+    }
+
+    private ResultSet select(String sessionId) {
+        List<Object[]> rows = new ArrayList<>();
+        String primaryId = primaryId(sessionId);
+        if (primaryId != null) {
+            Object[] session = sessions.get(primaryId);
+            Object[] row = {primaryId, session[SESSION_ID], session[1], session[LAST_ACCESS_TIME],
+                    session[MAX_INACTIVE_INTERVAL], null, null};
+            attributes.get(primaryId).forEach((name, bytes) -> {
+                Object[] attributeRow = Arrays.copyOf(row, row.length);
+                attributeRow[5] = name;
+                attributeRow[6] = bytes;
+                rows.add(attributeRow);
+            });
+            if (rows.isEmpty()) {
+                rows.add(row);
+            }
+        }
+        Iterator<Object[]> iterator = rows.iterator();
+        Object[][] current = new Object[1][];
+        return mock(ResultSet.class, invocation -> {
+            String method = invocation.getMethod().getName();
+            if ("next".equals(method)) {
+                current[0] = iterator.hasNext() ? iterator.next() : null;
+                return current[0] != null;
+            }
+            if ("findColumn".equals(method)) {
+                return Arrays.asList(COLUMNS).indexOf(invocation.<String>getArgument(0)) + 1;
+            }
+            if ("wasNull".equals(method)) {
+                return false;
+            }
+            Object column = invocation.getArgument(0);
+            return current[0][column instanceof Integer
+                    ? (Integer) column - 1 : Arrays.asList(COLUMNS).indexOf(column)];
+        });
+    }
+
+    private static Map<Integer, Object> positional(Object[] values) {
+        Map<Integer, Object> parameters = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            parameters.put(i + 1, values[i]);
+        }
+        return parameters;
+    }
+
+    private static Map<Integer, Object> parameters(StatementSetter setter) throws SQLException {
+        Map<Integer, Object> parameters = new HashMap<>();
+        setter.setValues(mock(PreparedStatement.class, invocation -> {
+            if (invocation.getMethod().getName().startsWith("set")) {
+                parameters.put(invocation.getArgument(0),
+                        "setNull".equals(invocation.getMethod().getName()) ? null : invocation.getArgument(1));
+            }
+            return null;
+        }));
+        return parameters;
+    }
+
+    private interface StatementSetter {
+        void setValues(PreparedStatement statement) throws SQLException;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.tests;
+
+import com.example.component.LoggingContextFilter;
+import com.example.component.RequestTraceFilter;
+import com.example.component.SlowRequestEndpoint;
+import com.example.component.SlowRequestRecorder;
+import com.example.component.TracingStatementCustomizer;
+import com.example.utils.RequestTrace;
+import org.hibernate.SessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowRequestRecorderTest {
+
+    private final SlowRequestRecorder recorder = new SlowRequestRecorder(3, 300, 0);
+    private final SlowRequestEndpoint endpoint = new SlowRequestEndpoint(recorder);
+
+    @Test
+    void keepsTheSlowestRequests() {
+        for (int i = 1; i <= 50; i++) {
+            RequestTrace trace = RequestTrace.begin("GET", "/home/" + i, System.nanoTime());
+            trace.end(trace.getStartNanos() + i * 1_000_000L);
+            recorder.record(trace, i * 1_000_000L, "rid" + i, 200);
+        }
+
+        assertThat(endpoint.slowRequests())
+                .extracting(SlowRequestRecorder.SlowRequest::getUri)
+                .containsExactly("/home/50", "/home/49", "/home/48");
+
+        endpoint.clear();
+        assertThat(endpoint.slowRequests()).isEmpty();
+    }
+
+    @Test
+    void requestsAreNotKeptBelowTheMinimumDuration() {
+        SlowRequestRecorder slowOnly = new SlowRequestRecorder(3, 300, 100);
+        RequestTrace trace = RequestTrace.begin("GET", "/home", System.nanoTime());
+        trace.end(trace.getStartNanos() + 50_000_000L);
+        slowOnly.record(trace, 50_000_000L, "rid", 200);
+
+        assertThat(slowOnly.getSlowest()).isEmpty();
+    }
+
+    @Test
+    void timingTreeOfFiltersAndNestedSpans() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/table.xhtml");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                RequestTrace trace = RequestTrace.current();
+                int outer = trace.enter("TableView.load");
+                trace.exit(trace.enter("select * from messages"));
+                trace.exit(outer);
+                resp.setStatus(201);
+            }
+        };
+
+        new LoggingContextFilter(false, null, null, recorder)
+                .doFilter(request, response, new MockFilterChain(servlet, new RequestTraceFilter()));
+
+        assertThat(RequestTrace.current()).isNull();
+        List<SlowRequestRecorder.SlowRequest> slowest = recorder.getSlowest();
+        assertThat(slowest).hasSize(1);
+        SlowRequestRecorder.SlowRequest slowRequest = slowest.get(0);
+        assertThat(slowRequest.getMethod()).isEqualTo("POST");
+        assertThat(slowRequest.getStatus()).isEqualTo(201);
+        assertThat(slowRequest.getRequestId()).isEqualTo(response.getHeader(LoggingContextFilter.REQUEST_ID_HEADER));
+        assertThat(slowRequest.getSpans())
+                .extracting(SlowRequestRecorder.Span::getName)
+                .containsExactly(RequestTraceFilter.SECURITY_SPAN, RequestTraceFilter.SERVLET_SPAN);
+        SlowRequestRecorder.Span servletSpan = slowRequest.getSpans().get(1);
+        assertThat(servletSpan.getChildren()).singleElement()
+                .satisfies(span -> {
+                    assertThat(span.getName()).isEqualTo("TableView.load");
+                    assertThat(span.getChildren()).extracting(SlowRequestRecorder.Span::getName)
+                            .containsExactly("select * from messages");
+                });
+        assertThat(servletSpan.getDurationMillis()).isLessThanOrEqualTo(slowRequest.getDurationMillis());
+    }
+
+    @Test
+    void hibernateStatementsBecomeSpans() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        new TracingStatementCustomizer().customize(properties);
+        StatementInspector inspector = (StatementInspector) properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+        SessionEventListener events = (SessionEventListener) Class.forName(
+                (String) properties.get(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER)).getConstructor().newInstance();
+
+        assertThat(inspector.inspect("select * from users")).isEqualTo("select * from users");
+        events.jdbcExecuteStatementStart();
+        events.jdbcExecuteStatementEnd();
+
+        RequestTrace trace = RequestTrace.begin("GET", "/home", System.nanoTime());
+        inspector.inspect("select * from messages");
+        events.jdbcExecuteStatementStart();
+        events.jdbcExecuteStatementEnd();
+        events.jdbcExecuteBatchStart();
+        events.jdbcExecuteBatchEnd();
+        trace.end(System.nanoTime());
+
+        assertThat(trace.size()).isEqualTo(2);
+        assertThat(trace.getName(0)).isEqualTo("select * from messages");
+        assertThat(trace.getName(1)).isEqualTo("jdbc batch");
+        assertThat(trace.getEndNanos(0)).isPositive();
+    }
+}